@@ -0,0 +1,117 @@
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Readers and writers contending on the same read/write lock, 3 reader Threads per writer Thread.
+ * <p> See {@link SyncBenchmark#main(String[])} for Thread counts and output.
+ * */
+@State(Scope.Group)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RWBenchmark {
+
+    interface RW {
+        void read(long tokens);
+        void write(long tokens);
+    }
+
+    @Param({"unfair_rw_mcs", "reentrant_rw_lock", "stamped_lock"})
+    public String lock;
+
+    @Param({"0", "16", "128"})
+    public long csTokens;
+
+    RW rw;
+
+    static RW rw(String key) {
+        switch (key) {
+            case "unfair_rw_mcs": {
+                final UnfairRWMCS lock = new UnfairRWMCS();
+                return new RW() {
+                    @Override
+                    public void read(long tokens) {
+                        lock.acquireRead();
+                        try { Blackhole.consumeCPU(tokens); }
+                        finally { lock.releaseRead(); }
+                    }
+
+                    @Override
+                    public void write(long tokens) {
+                        lock.acquireWrite();
+                        try { Blackhole.consumeCPU(tokens); }
+                        finally { lock.releaseWrite(); }
+                    }
+                };
+            }
+            case "reentrant_rw_lock": {
+                final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+                return new RW() {
+                    @Override
+                    public void read(long tokens) {
+                        lock.readLock().lock();
+                        try { Blackhole.consumeCPU(tokens); }
+                        finally { lock.readLock().unlock(); }
+                    }
+
+                    @Override
+                    public void write(long tokens) {
+                        lock.writeLock().lock();
+                        try { Blackhole.consumeCPU(tokens); }
+                        finally { lock.writeLock().unlock(); }
+                    }
+                };
+            }
+            case "stamped_lock": {
+                final StampedLock lock = new StampedLock();
+                return new RW() {
+                    @Override
+                    public void read(long tokens) {
+                        final long stamp = lock.readLock();
+                        try { Blackhole.consumeCPU(tokens); }
+                        finally { lock.unlockRead(stamp); }
+                    }
+
+                    @Override
+                    public void write(long tokens) {
+                        final long stamp = lock.writeLock();
+                        try { Blackhole.consumeCPU(tokens); }
+                        finally { lock.unlockWrite(stamp); }
+                    }
+                };
+            }
+            default: throw new IllegalArgumentException("No read/write lock found for key [" + key + "]");
+        }
+    }
+
+    @Setup
+    public void setup() { rw = rw(lock); }
+
+    @Benchmark
+    @Group("read_mostly")
+    @GroupThreads(3)
+    public void read() { rw.read(csTokens); }
+
+    @Benchmark
+    @Group("read_mostly")
+    @GroupThreads(1)
+    public void write() { rw.write(csTokens); }
+}
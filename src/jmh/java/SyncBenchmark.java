@@ -0,0 +1,160 @@
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Throughput and sample-time of a single lock shared by every benchmark Thread,
+ * for each {@link Synchronizers} strategy, the rest of the classes in this project, and the JDK baselines.
+ * <p> {@link #csTokens} sets the length of the critical section, in {@link Blackhole#consumeCPU(long)} tokens.
+ * <p> JMH cannot parameterise the Thread count, so {@link #main(String[])} re-runs the whole suite for each count in {@code -Djmh.threads}, e.g.:
+ * <pre>{@code
+ * gradle jmh -Djmh.threads=1,2,4,8 -Djmh.include=SyncBenchmark
+ * }</pre>
+ * writing one JSON result per Thread count into {@code -Djmh.out} (default {@code build/jmh}).
+ * <p> Every run adds the {@link GCProfiler}, so that {@code gc.alloc.rate.norm} (bytes per operation) sets each {@code *_recycled} variant against the allocating one.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SyncBenchmark {
+
+    /**
+     * The critical section, so that {@code synchronized} can be measured alongside the rest.
+     * */
+    interface Section {
+        void run(long tokens);
+    }
+
+    @Param({
+            "unfair_mcs", "weak_unfair_mcs", "fair_mcs", "unfair_busy_mcs", "fair_busy_mcs", "fast_synchronizer", "fair_synchronizer", "twa_synchronizer", "cohort_mcs",
+            "unfair_mcs_recycled", "weak_unfair_mcs_recycled", "fair_mcs_recycled", "unfair_busy_mcs_recycled", "fair_busy_mcs_recycled",
+            "reentrant_unfair_mcs", "mcs_lock", "unfair_rw_mcs", "combining_mcs", "delegation",
+            "synchronized", "reentrant_lock", "reentrant_rw_lock"
+    })
+    public String lock;
+
+    @Param({"0", "16", "128"})
+    public long csTokens;
+
+    Section section;
+
+    /** Resources behind the section (e.g. a server Thread), closed on tear down.*/
+    final List<AutoCloseable> closeables = new ArrayList<>();
+
+    static Section of(Synchronizer sync) {
+        return tokens -> {
+            sync.acquire();
+            try {
+                Blackhole.consumeCPU(tokens);
+            } finally {
+                sync.release();
+            }
+        };
+    }
+
+    static Section of(Lock lock) {
+        return tokens -> {
+            lock.lock();
+            try {
+                Blackhole.consumeCPU(tokens);
+            } finally {
+                lock.unlock();
+            }
+        };
+    }
+
+    /**
+     * @return the section guarded by the given key, read/write locks are measured on their exclusive side.
+     * @param closeables collects whatever must be closed once the benchmark ends.
+     * */
+    static Section section(String key, List<AutoCloseable> closeables) {
+        switch (key) {
+            case "reentrant_unfair_mcs": return of(Synchronizers.UNFAIR_MCS.createReentrant());
+            case "mcs_lock": return of(new MCSLock());
+            case "unfair_rw_mcs": return of(new UnfairRWMCS().writeLock());
+            case "combining_mcs": {
+                final CombiningMCS<Object> combiner = new CombiningMCS<>(null);
+                return tokens -> combiner.combine(s -> {
+                    Blackhole.consumeCPU(tokens);
+                    return null;
+                });
+            }
+            case "delegation": {
+                final DelegationLock<Object> delegation = new DelegationLock<>(null);
+                closeables.add(delegation);
+                return tokens -> delegation.delegate(s -> {
+                    Blackhole.consumeCPU(tokens);
+                    return null;
+                });
+            }
+            case "synchronized": {
+                final Object monitor = new Object();
+                return tokens -> {
+                    synchronized (monitor) {
+                        Blackhole.consumeCPU(tokens);
+                    }
+                };
+            }
+            case "reentrant_lock": return of(new ReentrantLock());
+            case "reentrant_rw_lock": return of(new ReentrantReadWriteLock().writeLock());
+            default: return of(Synchronizers.of(key).create());
+        }
+    }
+
+    @Setup
+    public void setup() { section = section(lock, closeables); }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        for (AutoCloseable c : closeables) c.close();
+        closeables.clear();
+    }
+
+    @Benchmark
+    public void acquireRelease() { section.run(csTokens); }
+
+    public static void main(String[] args) throws RunnerException {
+        final String include = System.getProperty("jmh.include", "SyncBenchmark|RWBenchmark");
+        final File out = new File(System.getProperty("jmh.out", "build/jmh"));
+        if (!out.isDirectory() && !out.mkdirs()) throw new IllegalStateException("Cannot create " + out);
+        for (String t : System.getProperty("jmh.threads", "1,2,4,8").split(",")) {
+            final int threads = Integer.parseInt(t.trim());
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(out, "threads_" + threads + ".json").getPath());
+            final String params = System.getProperty("jmh.csTokens");
+            if (params != null) options = options.param("csTokens", params.split(","));
+            new Runner(options.build()).run();
+        }
+    }
+}
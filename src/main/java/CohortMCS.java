@@ -0,0 +1,100 @@
+import java.util.function.IntSupplier;
+
+/**
+ * Cohort lock: one {@link UnfairMCS} per cluster, and a global {@link UnfairMCS} contended only by the holders of each local queue.
+ * <p> The releasing process hands the global lock over to its own cluster, by releasing just its local queue,
+ * for as long as that queue has waiters ({@link UnfairMCS#hasQueuedThreads()}), and up to {@link #passLimit} consecutive times,
+ * so that the protected data stays warm in the caches of that cluster (a socket, a core group, an executor shard...),
+ * instead of bouncing between arbitrary Threads as in a flat queue.
+ * Past the limit, or with no one queued locally, the global lock is released as well, so that other clusters are not starved.
+ * <p> The cluster of the acquiring Thread is given by a pluggable {@link IntSupplier} (reduced modulo the number of clusters),
+ * e.g. {@link #byThreadId()}, an executor shard stored in a ThreadLocal, or an affinity hint.
+ * <p> The global lock is released by whichever Thread of the cohort ends up holding it, which {@link UnfairMCS} allows since it does not track ownership.
+ * Since a passed global lock is only ever picked up by a waiter of the same queue, local waiters cannot abandon it, so no timeouts are supported.
+ * <pre>{@code
+ * final Synchronizer lock = new CohortMCS(2, CohortMCS.byThreadId(), 64);
+ * }</pre>
+ * */
+public class CohortMCS implements Synchronizer {
+
+    private static final class Cluster {
+        final UnfairMCS local = new UnfairMCS();
+        /** Guarded by {@link #local}.*/
+        boolean globalPassed;
+        /** Guarded by {@link #local}.*/
+        int passes;
+    }
+
+    static final int DEFAULT_CLUSTERS = 2, DEFAULT_PASS_LIMIT = 64;
+
+    private final UnfairMCS global = new UnfairMCS();
+    private final Cluster[] clusters;
+    private final IntSupplier cluster;
+
+    /**
+     * Consecutive hand-offs within a cluster before the global lock is released.
+     * */
+    final int passLimit;
+
+    /** Written by the holder, read back on its release.*/
+    private Cluster holder;
+
+    public static IntSupplier byThreadId() { return () -> (int) Thread.currentThread().getId(); }
+
+    public CohortMCS() { this(DEFAULT_CLUSTERS, byThreadId(), DEFAULT_PASS_LIMIT); }
+
+    /**
+     * @param clusters the number of local queues.
+     * @param cluster the cluster id of the calling Thread, any int, reduced modulo {@code clusters}.
+     * @param passLimit the consecutive hand-offs within a cluster before the global lock is released.
+     * */
+    public CohortMCS(int clusters, IntSupplier cluster, int passLimit) {
+        if (clusters < 1 || passLimit < 0) throw new IllegalArgumentException("Expected clusters >= 1 and passLimit >= 0");
+        this.clusters = new Cluster[clusters];
+        for (int i = 0; i < clusters; i++) this.clusters[i] = new Cluster();
+        this.cluster = cluster;
+        this.passLimit = passLimit;
+    }
+
+    private Cluster cluster() { return clusters[Math.floorMod(cluster.getAsInt(), clusters.length)]; }
+
+    @Override
+    public void acquire() {
+        final Cluster c = cluster();
+        c.local.acquire();
+        if (!c.globalPassed) global.acquire();
+        holder = c;
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        final Cluster c = cluster();
+        if (!c.local.tryAcquire()) return false;
+        if (!c.globalPassed && !global.tryAcquire()) {
+            c.local.release();
+            return false;
+        }
+        holder = c;
+        return true;
+    }
+
+    @Override
+    public void release() {
+        final Cluster c = holder;
+        if (c.passes < passLimit && c.local.hasQueuedThreads()) {
+            c.passes++;
+            c.globalPassed = true;
+        } else {
+            c.passes = 0;
+            c.globalPassed = false;
+            global.release();
+        }
+        c.local.release();
+    }
+
+    @Override
+    public boolean isFair() { return false; }
+
+    @Override
+    public boolean isParking() { return true; }
+}
@@ -0,0 +1,146 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Flat-combining over an MCS queue (after Fatourou and Kallimanis' CC-Synch):
+ * instead of handing the lock from Thread to Thread, the holder (the combiner) runs the operations published by the queued Threads on their behalf,
+ * so that tiny critical sections on the state {@code S} run at the cost of a single Thread, with the state never leaving its cache.
+ * <p> Each arriving Thread swaps its node into the {@link #tail}, receiving its predecessor's node, where it publishes its operation,
+ * and waits on that node until either its operation was combined (its result travels back through the node), or it is handed the combiner role.
+ * A combiner runs at most {@link #maxBatch} operations before handing the role over, so that it is not held hostage by a never-ending stream of arrivals.
+ * <p> Nodes circulate between Threads one push at a time, so that, once every Thread owns a node, no allocation takes place.
+ * <p> Exceptions thrown by an operation are delivered to the Thread that published it (checked ones wrapped in an {@link UndeclaredThrowableException}).
+ * <pre>{@code
+ * final CombiningMCS<long[]> counter = new CombiningMCS<>(new long[1]);
+ * long value = counter.combine(c -> ++c[0]);
+ * }</pre>
+ * */
+public class CombiningMCS<S> {
+
+    private static final class Node {
+        /** Written by the publisher before linking {@link #next}.*/
+        Function<Object, Object> op;
+        Thread waiter;
+        /** Written by the combiner before clearing {@link #waiting}.*/
+        Object result;
+        Throwable thrown;
+        boolean completed;
+
+        volatile boolean waiting;
+        volatile boolean parked;
+        volatile Node next;
+    }
+
+    static final VarHandle TAIL;
+
+    static {
+        try {
+            TAIL = MethodHandles.lookup().findVarHandle(
+                    CombiningMCS.class, "tail", Node.class
+            );
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    static final int DEFAULT_BATCH = 1 << 6;
+
+    /** Guarded by the combiner role.*/
+    private final S state;
+
+    /** Starts as a dummy node that is not waiting, making its first receiver the combiner.*/
+    private volatile Node tail = new Node();
+
+    private final ThreadLocal<Node> mine = ThreadLocal.withInitial(Node::new);
+
+    final int maxBatch;
+
+    /**
+     * Idling of the publishers, awakened by the combiner.
+     * */
+    final WaitPolicy queued;
+
+    public CombiningMCS(S state) { this(state, DEFAULT_BATCH, WaitPolicy.PARKING); }
+
+    /**
+     * @param maxBatch the most operations a combiner runs (its own included) before handing the role over.
+     * @param queued default {@link WaitPolicy#PARKING}.
+     * */
+    public CombiningMCS(S state, int maxBatch, WaitPolicy queued) {
+        if (maxBatch < 1) throw new IllegalArgumentException("Expected maxBatch >= 1");
+        this.state = state;
+        this.maxBatch = maxBatch;
+        this.queued = queued;
+    }
+
+    /**
+     * Runs {@code op} on the state, in mutual exclusion with every other operation, either by this Thread or by the current combiner.
+     * @return the result of {@code op}.
+     * */
+    @SuppressWarnings("unchecked")
+    public <R> R combine(Function<? super S, ? extends R> op) {
+        final Node nextNode = mine.get();
+        nextNode.next = null;
+        nextNode.completed = false;
+        nextNode.waiting = true;
+
+        final Node node = (Node) TAIL.getAndSet(this, nextNode);
+        node.op = (Function<Object, Object>) op;
+        node.waiter = Thread.currentThread();
+        node.next = nextNode; // publish
+        mine.set(node);
+
+        int i = 0;
+        while (node.waiting) {
+            if (i != WaitPolicy.PARK) i = queued.idle(i);
+            else {
+                node.parked = true;
+                if (node.waiting) LockSupport.park(this);
+                node.parked = false;
+            }
+        }
+
+        if (!node.completed) combineFrom(node);
+
+        final Object result = node.result;
+        final Throwable thrown = node.thrown;
+        node.op = null;
+        node.result = null;
+        node.thrown = null;
+        if (thrown != null) {
+            if (thrown instanceof RuntimeException) throw (RuntimeException) thrown;
+            if (thrown instanceof Error) throw (Error) thrown;
+            throw new UndeclaredThrowableException(thrown);
+        }
+        return (R) result;
+    }
+
+    /**
+     * Runs the operations of {@code first} onwards (its own included), up to {@link #maxBatch}, stopping at the node with no successor yet (the tail).
+     * The node it stops at is left not waiting, yet not completed, so that its waiter (or its future receiver) inherits the combiner role.
+     * */
+    private void combineFrom(Node first) {
+        Node node = first, next;
+        for (int count = 0; (next = node.next) != null && count < maxBatch; count++) {
+            try {
+                node.result = node.op.apply(state);
+            } catch (Throwable e) {
+                node.thrown = e;
+            }
+            if (node != first) {
+                node.completed = true;
+                wake(node);
+            }
+            node = next;
+        }
+        wake(node); // hands the combiner role over, to a waiter or to the next receiver of the tail.
+    }
+
+    private static void wake(Node node) {
+        node.waiting = false;
+        if (node.parked) LockSupport.unpark(node.waiter);
+    }
+}
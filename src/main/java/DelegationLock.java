@@ -0,0 +1,160 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Delegation lock (after RCL and ffwd): the lock never moves, every critical section on the state {@code S} is executed by a single dedicated server Thread,
+ * so that the state stays in the cache of the server's core, and clients only ever exchange their request and its result.
+ * <p> Clients link their request as an MCS-style node behind the {@link #tail}, and wait on it until the server marks it done,
+ * the server walks the links in order, so requests are served strictly in arrival order.
+ * <p> The JVM cannot pin a Thread, so the server Thread is created by the given {@link ThreadFactory}, where it can be pinned (or prioritized) by the platform.
+ * <p> Exceptions thrown by a request are delivered to its client (checked ones wrapped in an {@link UndeclaredThrowableException}).
+ * Requests made from within a request run inline, since the server cannot wait on itself.
+ * <pre>{@code
+ * final DelegationLock<long[]> counter = new DelegationLock<>(new long[1]);
+ * long value = counter.delegate(c -> ++c[0]);
+ * counter.close();
+ * }</pre>
+ * */
+public class DelegationLock<S> implements AutoCloseable {
+
+    private static final class Node {
+        /** Written by the client before linking.*/
+        final Function<Object, Object> op;
+        final Thread waiter = Thread.currentThread();
+        /** Written by the server before setting {@link #done}.*/
+        Object result;
+        Throwable thrown;
+
+        volatile boolean done;
+        volatile boolean parked;
+        volatile Node next;
+
+        Node(Function<Object, Object> op) { this.op = op; }
+    }
+
+    /** The {@link #tail} once closed, denying any further request.*/
+    private static final Node CLOSED = new Node(null);
+
+    static final VarHandle TAIL;
+
+    static {
+        try {
+            TAIL = MethodHandles.lookup().findVarHandle(
+                    DelegationLock.class, "tail", Node.class
+            );
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /** Confined to the server Thread.*/
+    private final S state;
+
+    /** Starts as the dummy node the server walks from.*/
+    private volatile Node tail = new Node(null);
+
+    private final Thread server;
+    private volatile boolean serverParked;
+    private volatile boolean closed;
+
+    /**
+     * Idling of the clients, awakened by the server, and of the server, awakened by the clients.
+     * */
+    final WaitPolicy client, idle;
+
+    public DelegationLock(S state) {
+        this(state, Thread::new, WaitPolicy.PARKING, WaitPolicy.spinThenPark(1 << 10));
+    }
+
+    /**
+     * @param factory creates (but does not start) the server Thread.
+     * @param client default {@link WaitPolicy#PARKING}.
+     * @param idle the server's, while no request is pending, default spins 1024 times before parking.
+     * */
+    public DelegationLock(S state, ThreadFactory factory, WaitPolicy client, WaitPolicy idle) {
+        this.state = state;
+        this.client = client;
+        this.idle = idle;
+        final Node first = tail; // read here, since clients may push before the server starts.
+        this.server = factory.newThread(() -> serve(first));
+        server.setDaemon(true);
+        server.start();
+    }
+
+    /**
+     * Runs {@code op} on the state, on the server Thread, waiting for its result.
+     * @return the result of {@code op}.
+     * @throws RejectedExecutionException if closed.
+     * */
+    @SuppressWarnings("unchecked")
+    public <R> R delegate(Function<? super S, ? extends R> op) {
+        if (Thread.currentThread() == server) return op.apply(state);
+        final Node node = new Node((Function<Object, Object>) op);
+        Node prev;
+        do {
+            if ((prev = tail) == CLOSED) throw new RejectedExecutionException("DelegationLock closed");
+        } while (!TAIL.compareAndSet(this, prev, node));
+        prev.next = node;
+        if (serverParked) LockSupport.unpark(server);
+
+        int i = 0;
+        while (!node.done) {
+            if (i != WaitPolicy.PARK) i = client.idle(i);
+            else {
+                node.parked = true;
+                if (!node.done) LockSupport.park(this);
+                node.parked = false;
+            }
+        }
+
+        final Throwable thrown = node.thrown;
+        if (thrown != null) {
+            if (thrown instanceof RuntimeException) throw (RuntimeException) thrown;
+            if (thrown instanceof Error) throw (Error) thrown;
+            throw new UndeclaredThrowableException(thrown);
+        }
+        return (R) node.result;
+    }
+
+    /**
+     * Walks the requests in order, only ever exiting once closed, by swapping an empty queue for {@link #CLOSED},
+     * so that every request linked before is served, and none can be linked after.
+     * */
+    private void serve(Node head) {
+        Node next;
+        int i = 0;
+        for (;;) {
+            if ((next = head.next) != null) {
+                try {
+                    next.result = next.op.apply(state);
+                } catch (Throwable e) {
+                    next.thrown = e;
+                }
+                next.done = true;
+                if (next.parked) LockSupport.unpark(next.waiter);
+                head = next;
+                i = 0;
+            } else if (closed && TAIL.compareAndSet(this, head, CLOSED)) return;
+            else if (i != WaitPolicy.PARK) i = idle.idle(i);
+            else {
+                serverParked = true;
+                if (head.next == null && !closed) LockSupport.park(this);
+                serverParked = false;
+            }
+        }
+    }
+
+    /**
+     * Stops accepting requests, the server Thread exits once every request already linked has been served.
+     * */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(server);
+    }
+}
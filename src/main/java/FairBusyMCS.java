@@ -3,10 +3,13 @@ import java.lang.invoke.VarHandle;
 
 /**
  * This synchronizer ("FairMCS"), as opposed as {@link UnfairBusyMCS} or {@link UnfairMCS},
- * forces every {@link Thread} to enter the MCS linked queue.
+ * forces every {@link Thread} to enter the MCS linked queue, once anyone is queued.
+ * <p> While the queue is empty, the lock is taken and released with a single atomic on {@link #STATE}, without allocating a Node ({@link #FAST} owner).
+ * The first Node of an empty queue then busy-waits for the {@link #FAST} owner to release, so that no arrival can barge in front of it,
+ * while the rest receive the ownership straight from their predecessor ({@link #QUEUED}).
  * <p> As is usual the MCS tradeoff of not using the CLH ({@link java.util.concurrent.locks.ReentrantReadWriteLock}) version is its increased memory allocation in exchange for flag locality and contention latency spread through {@link #TAIL} and `witness.next` during Node pushes.
  * */
-public class FairBusyMCS {
+public class FairBusyMCS implements Synchronizer {
     private static class Node {
 
         final Thread current = Thread.currentThread();
@@ -15,6 +18,33 @@ public class FairBusyMCS {
         volatile Node next;
         static final Node removed = new Node();
 
+        /** Whether `next` still holds a value from the node's previous life, owner-confined.*/
+        boolean stale;
+
+        static final ThreadLocal<Node[]> cache = ThreadLocal.withInitial(() -> new Node[1]);
+
+        /**
+         * Takes the node of the current Thread, which stays in use until its release, so nested acquisitions get a new one.
+         * <p> Its `next` is left as it was after polling (never null), so that stale pushers still holding it as their tail cannot link behind it,
+         * until it is published again, see {@link FairBusyMCS#published(Node)}.
+         * */
+        static Node take() {
+            final Node[] slot = cache.get();
+            final Node n = slot[0];
+            if (n == null) return new Node();
+            slot[0] = null;
+            PARKED.set(n, true);
+            n.stale = true;
+            return n;
+        }
+
+        /**
+         * Only nodes released by their owner are kept.
+         * */
+        static void giveBack(Node n) {
+            if (n.current == Thread.currentThread()) cache.get()[0] = n;
+        }
+
         @Override
         public String toString() {
             return "Node{" +
@@ -44,6 +74,9 @@ public class FairBusyMCS {
             TAIL = MethodHandles.lookup().findVarHandle(
                     FairBusyMCS.class, "tail", Node.class
             );
+            STATE = MethodHandles.lookup().findVarHandle(
+                    FairBusyMCS.class, "state",
+                    int.class);
         } catch (NoSuchFieldException | IllegalAccessException e) {
             throw new ExceptionInInitializerError(e);
         }
@@ -53,42 +86,111 @@ public class FairBusyMCS {
     Node top = null;
     volatile Node tail = null;
 
+    /**
+     * {@link #FAST} owners skipped the queue, {@link #QUEUED} owners are the {@link #top} of the queue.
+     * */
+    volatile int state = FREE;
+    static final VarHandle STATE;
+
+    static final int
+            FREE = 0,
+            FAST = 1,
+            QUEUED = 2;
+
+
 
+    final boolean recycle;
+
+    /**
+     * Idling of the nodes behind the HEAD, and of the HEAD itself, while the {@link #FAST} owner holds the lock.
+     * */
+    final WaitPolicy queued, head;
+
+    public FairBusyMCS() { this(false); }
+
+    /**
+     * @param recycle if true, contended acquisitions reuse a per-Thread node (nested acquisitions take a new one), so that the steady-state contended path allocates nothing.
+     * */
+    public FairBusyMCS(boolean recycle) { this(recycle, WaitPolicy.YIELD, WaitPolicy.SPIN); }
+
+    /**
+     * @param queued default {@link WaitPolicy#YIELD}, as predecessors do not unpark, a {@link WaitPolicy#PARK} is bounded by {@link WaitPolicy#PARK_NANOS}.
+     * @param head default {@link WaitPolicy#SPIN}, since nothing awakens the HEAD, a {@link WaitPolicy#PARK} is bounded by {@link WaitPolicy#PARK_NANOS}.
+     * */
+    public FairBusyMCS(boolean recycle, WaitPolicy queued, WaitPolicy head) {
+        this.recycle = recycle;
+        this.queued = queued;
+        this.head = head;
+    }
+
+    /**
+     * Clears the `next` of a recycled node, once it has been published as the {@link #TAIL}.
+     * <p> Pushers that read this node as the {@link #TAIL} before the clearing simply retry,
+     * while stale pushers from its previous life link behind it, where they belong.
+     * <p> Whether to clear is decided by {@link Node#stale}, never by re-reading `next`, which may already hold a fresh successor.
+     * */
+    private static void published(Node nextNode) {
+        if (nextNode.stale) {
+            nextNode.stale = false;
+            NEXT.setRelease(nextNode, null);
+        }
+    }
 
     private Node bottomSet(Node nextNode) {
         Node wit;
         if ((wit = (Node) TAIL.compareAndExchange(this, null, nextNode)) == null) {
             top = nextNode;
-
+            published(nextNode);
             return null;
         } else return wit;
     }
 
+    @Override
     public void acquire() {
+        if (tail != null || !STATE.compareAndSet(this, FREE, FAST)) {
             Node h = tail;
-            final Node nextNode = new Node();
+            final Node nextNode = recycle ? Node.take() : new Node();
 
             if (h != null || (h = bottomSet(nextNode)) != null) {
-                cont:
                 do {
                     do {
                         if (NEXT.compareAndSet(h, null, nextNode)) {
                             TAIL.compareAndSet(this, h, nextNode);
+                            published(nextNode);
+                            int i = 0;
                             while (nextNode.parked) {
-                                Thread.yield();
-//                                LockSupport.park();
+                                i = WaitPolicy.parkNanos(queued, i, this);
                             }
-                            break cont;
+                            return; // ownership handed by the predecessor.
                         }
                         h = tail;
                     } while (h != null);
                     h = bottomSet(nextNode);
                 } while (h != null);
             }
+
+            // ------ a new top waits for the FAST owner (if any) to release.
+
+            int i = 0;
+            while (!STATE.compareAndSet(this, FREE, QUEUED)) {
+                i = WaitPolicy.parkNanos(head, i, this);
+            }
+        }
     }
 
+    /**
+     * Only succeeds if no one is queued.
+     * */
+    @Override
+    public boolean tryAcquire() { return tail == null && STATE.compareAndSet(this, FREE, FAST); }
+
+    @Override
     public void release() {
-//        BUSY.setRelease(this, false);
+        if (state == FAST) {
+            STATE.setRelease(this, FREE);
+            return;
+        }
+
         // -------- poll
 
         Node first = top;
@@ -98,6 +200,7 @@ public class FairBusyMCS {
             if (TAIL.compareAndSet(this, first, null)) { // top will only be replaced sequentially,
                 // UNLESS when being set to null, since new pushes occur asynchronously to this polling.
                 TOP.compareAndSet(this, first, null);
+                STATE.setRelease(this, FREE);
             }
             else {
                 Node trueNext = first.next;
@@ -117,5 +220,12 @@ public class FairBusyMCS {
             PARKED.setRelease(next, false);
 
         }
+        if (recycle) Node.giveBack(first);
     }
+
+    @Override
+    public boolean isFair() { return true; }
+
+    @Override
+    public boolean isParking() { return false; }
 }
@@ -1,13 +1,20 @@
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.LockSupport;
 
 /**
  * This synchronizer ("FairMCS"), as opposed as {@link UnfairBusyMCS} or {@link UnfairMCS},
- * forces every {@link Thread} to enter the MCS linked queue.
+ * forces every {@link Thread} to enter the MCS linked queue, once anyone is queued.
+ * <p> While the queue is empty, the lock is taken and released with a single atomic on {@link #STATE}, without allocating a Node ({@link #FAST} owner).
+ * The first Node of an empty queue then busy-waits for the {@link #FAST} owner to release, so that no arrival can barge in front of it,
+ * while the rest receive the ownership straight from their predecessor ({@link #QUEUED}).
+ * <p> Conditions ({@link #newCondition()}) splice their signalled waiters onto this same queue, see {@link ConditionObject}.
  * <p> As is usual the MCS tradeoff of not using the CLH ({@link java.util.concurrent.locks.ReentrantReadWriteLock}) version is its increased memory allocation in exchange for flag locality and contention latency spread through {@link #TAIL} and `witness.next` during Node pushes.
  * */
-public class FairMCS {
+public class FairMCS implements Synchronizer {
     private static class Node {
 
         final Thread current = Thread.currentThread();
@@ -16,6 +23,33 @@ public class FairMCS {
         volatile Node next;
         static final Node removed = new Node();
 
+        /** Whether `next` still holds a value from the node's previous life, owner-confined.*/
+        boolean stale;
+
+        static final ThreadLocal<Node[]> cache = ThreadLocal.withInitial(() -> new Node[1]);
+
+        /**
+         * Takes the node of the current Thread, which stays in use until its release, so nested acquisitions get a new one.
+         * <p> Its `next` is left as it was after polling (never null), so that stale pushers still holding it as their tail cannot link behind it,
+         * until it is published again, see {@link FairMCS#published(Node)}.
+         * */
+        static Node take() {
+            final Node[] slot = cache.get();
+            final Node n = slot[0];
+            if (n == null) return new Node();
+            slot[0] = null;
+            PARKED.set(n, true);
+            n.stale = true;
+            return n;
+        }
+
+        /**
+         * Only nodes released by their owner are kept.
+         * */
+        static void giveBack(Node n) {
+            if (n.current == Thread.currentThread()) cache.get()[0] = n;
+        }
+
         @Override
         public String toString() {
             return "Node{" +
@@ -25,6 +59,18 @@ public class FairMCS {
         }
     }
 
+    /**
+     * Node of a {@link ConditionObject} waiter, later reused as its node in the lock queue.
+     * */
+    private static final class ConditionNode extends Node {
+        /** Guarded by the lock.*/
+        ConditionNode nextWaiter;
+        /** Won by whoever moves the node onto the lock queue: the signaller, or the waiter abandoning the condition.*/
+        volatile boolean waiting = true;
+        /** Set before awakening, if the node became the {@link #top} of an empty queue, instead of receiving the ownership from a predecessor.*/
+        boolean bottom;
+    }
+
     static final VarHandle NEXT;
     static final VarHandle PARKED;
 
@@ -45,6 +91,12 @@ public class FairMCS {
             TAIL = MethodHandles.lookup().findVarHandle(
                     FairMCS.class, "tail", Node.class
             );
+            STATE = MethodHandles.lookup().findVarHandle(
+                    FairMCS.class, "state",
+                    int.class);
+            WAITING = MethodHandles.lookup().findVarHandle(
+                    ConditionNode.class, "waiting",
+                    boolean.class);
         } catch (NoSuchFieldException | IllegalAccessException e) {
             throw new ExceptionInInitializerError(e);
         }
@@ -54,41 +106,139 @@ public class FairMCS {
     Node top = null;
     volatile Node tail = null;
 
+    /**
+     * {@link #FAST} owners skipped the queue, {@link #QUEUED} owners are the {@link #top} of the queue.
+     * */
+    volatile int state = FREE;
+    static final VarHandle STATE;
+
+    static final int
+            FREE = 0,
+            FAST = 1,
+            QUEUED = 2;
+
+    static final VarHandle WAITING;
 
 
+
+    final boolean recycle;
+
+    /** Null unless {@link LockStats#ENABLED}.*/
+    final LockStats stats = LockStats.create();
+
+    /**
+     * Idling of the nodes behind the HEAD, and of the HEAD itself, while the {@link #FAST} owner holds the lock.
+     * */
+    final WaitPolicy queued, head;
+
+    public FairMCS() { this(false); }
+
+    /**
+     * @param recycle if true, contended acquisitions reuse a per-Thread node (nested acquisitions take a new one), so that the steady-state contended path allocates nothing.
+     * */
+    public FairMCS(boolean recycle) { this(recycle, WaitPolicy.PARKING, WaitPolicy.SPIN); }
+
+    /**
+     * @param queued default {@link WaitPolicy#PARKING}.
+     * @param head default {@link WaitPolicy#SPIN}, since nothing awakens the HEAD, a {@link WaitPolicy#PARK} is bounded by {@link WaitPolicy#PARK_NANOS}.
+     * */
+    public FairMCS(boolean recycle, WaitPolicy queued, WaitPolicy head) {
+        this.recycle = recycle;
+        this.queued = queued;
+        this.head = head;
+    }
+
+    /**
+     * Clears the `next` of a recycled node, once it has been published as the {@link #TAIL}.
+     * <p> Pushers that read this node as the {@link #TAIL} before the clearing simply retry,
+     * while stale pushers from its previous life link behind it, where they belong.
+     * <p> Whether to clear is decided by {@link Node#stale}, never by re-reading `next`, which may already hold a fresh successor.
+     * */
+    private static void published(Node nextNode) {
+        if (nextNode.stale) {
+            nextNode.stale = false;
+            NEXT.setRelease(nextNode, null);
+        }
+    }
+
     private Node bottomSet(Node nextNode) {
         Node wit;
         if ((wit = (Node) TAIL.compareAndExchange(this, null, nextNode)) == null) {
             top = nextNode;
-
+            published(nextNode);
             return null;
         } else return wit;
     }
 
-    public void acquire() {
-            Node h = tail;
-            final Node nextNode = new Node();
-
-            if (h != null || (h = bottomSet(nextNode)) != null) {
-                cont:
+    /**
+     * @return true if the node was linked behind a predecessor and will receive the ownership from it, false if it became the {@link #top}.
+     * */
+    private boolean enqueue(Node h, Node nextNode) {
+        if (h != null || (h = bottomSet(nextNode)) != null) {
+            do {
                 do {
-                    do {
-                        if (NEXT.compareAndSet(h, null, nextNode)) {
-                            TAIL.compareAndSet(this, h, nextNode);
-                            while (nextNode.parked) {
-                                LockSupport.park();
-                            }
-                            break cont;
-                        }
-                        h = tail;
-                    } while (h != null);
-                    h = bottomSet(nextNode);
+                    if (NEXT.compareAndSet(h, null, nextNode)) {
+                        TAIL.compareAndSet(this, h, nextNode);
+                        published(nextNode);
+                        return true;
+                    }
+                    h = tail;
                 } while (h != null);
-            }
+                h = bottomSet(nextNode);
+            } while (h != null);
+        }
+        return false;
     }
 
+    /**
+     * A new top waits for the {@link #FAST} owner (if any) to release.
+     * */
+    private void acquireFirst() {
+        int i = 0;
+        while (!STATE.compareAndSet(this, FREE, QUEUED)) {
+            if (LockStats.ENABLED && i == WaitPolicy.PARK) stats.parked();
+            i = WaitPolicy.parkNanos(head, i, this);
+        }
+    }
+
+    @Override
+    public void acquire() {
+        if (tail != null || !STATE.compareAndSet(this, FREE, FAST)) {
+            final long since = LockStats.ENABLED ? stats.queued() : 0L;
+            final Node nextNode = recycle ? Node.take() : new Node();
+
+            if (enqueue(tail, nextNode)) {
+                int i = 0;
+                while (nextNode.parked) {
+                    if (LockStats.ENABLED && i == WaitPolicy.PARK) stats.parked();
+                    i = WaitPolicy.park(queued, i, this);
+                }
+            } else acquireFirst(); // else, ownership handed by the predecessor.
+
+            if (LockStats.ENABLED) stats.acquired(since);
+        } else if (LockStats.ENABLED) stats.fastPath();
+    }
+
+    /**
+     * Only succeeds if no one is queued.
+     * */
+    @Override
+    public boolean tryAcquire() {
+        if (tail == null && STATE.compareAndSet(this, FREE, FAST)) {
+            if (LockStats.ENABLED) stats.fastPath();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
     public void release() {
-//        BUSY.setRelease(this, false);
+        if (LockStats.ENABLED) stats.released();
+        if (state == FAST) {
+            STATE.setRelease(this, FREE);
+            return;
+        }
+
         // -------- poll
 
         Node first = top;
@@ -98,12 +248,14 @@ public class FairMCS {
             if (TAIL.compareAndSet(this, first, null)) { // top will only be replaced sequentially,
                 // UNLESS when being set to null, since new pushes occur asynchronously to this polling.
                 TOP.compareAndSet(this, first, null);
+                STATE.setRelease(this, FREE);
             }
             else {
                 Node trueNext = first.next;
                 top = trueNext;
 
                 if (PARKED.compareAndSet(trueNext, true, false)) {
+                    if (LockStats.ENABLED) stats.unparked();
                     LockSupport.unpark(trueNext.current);
                 }
             }
@@ -111,8 +263,171 @@ public class FairMCS {
         else {
             top = next;
             if (PARKED.compareAndSet(next, true, false)) {
+                if (LockStats.ENABLED) stats.unparked();
                 LockSupport.unpark(next.current);
             }
         }
+        if (recycle) Node.giveBack(first);
+    }
+
+    private static final int
+            SIGNALLED = 0,
+            TIMED_OUT = 1,
+            INTERRUPTED = 2;
+
+    /**
+     * @return a new {@link ConditionObject} bound to this lock.
+     * */
+    @Override
+    public Condition newCondition() { return new ConditionObject(); }
+
+    /**
+     * Waiters park on their own list, and are spliced onto the lock queue by {@link #signal()},
+     * so that a signalled Thread is only awakened once the ownership is handed to it, instead of waking up just to block again on the lock.
+     * If the splice makes it the {@link #top} (empty queue) the signaller awakens it straight away, and it waits for the {@link #FAST} owner as any first node does.
+     * <p> As with the lock itself, ownership is not tracked: every method must only be called while holding the lock.
+     * */
+    public final class ConditionObject implements Condition {
+        private ConditionNode first, last; // guarded by the lock
+
+        private ConditionNode addWaiter() {
+            final ConditionNode node = new ConditionNode();
+            if (last == null) first = node;
+            else last.nextWaiter = node;
+            return last = node;
+        }
+
+        /**
+         * @return false if the waiter already abandoned the condition.
+         * */
+        private boolean transfer(ConditionNode node) {
+            if (!WAITING.compareAndSet(node, true, false)) return false;
+            if (!enqueue(tail, node)) {
+                node.bottom = true;
+                PARKED.setRelease(node, false);
+                LockSupport.unpark(node.current);
+            }
+            return true;
+        }
+
+        /**
+         * Removes the waiters that abandoned the condition, called by them once the lock is re-acquired.
+         * */
+        private void unlinkAbandoned() {
+            ConditionNode prev = null, node = first;
+            while (node != null) {
+                final ConditionNode next = node.nextWaiter;
+                if (!node.waiting) {
+                    node.nextWaiter = null;
+                    if (prev == null) first = next;
+                    else prev.nextWaiter = next;
+                    if (next == null) last = prev;
+                } else prev = node;
+                node = next;
+            }
+        }
+
+        /**
+         * Releases the lock, waits until signalled (or abandons the condition), then re-acquires the lock in queue order.
+         * <p> If both the signal and the interruption arrive, the signal wins and the interruption is re-asserted.
+         * */
+        private int await(boolean interruptible, boolean timed, long nanos) {
+            final ConditionNode node = addWaiter();
+            final long deadline = timed ? System.nanoTime() + nanos : 0L;
+            release();
+            boolean interrupted = false;
+            int cause = SIGNALLED;
+            while (node.parked) {
+                if (cause == SIGNALLED && node.waiting) {
+                    if (Thread.interrupted()) {
+                        interrupted = true;
+                        if (interruptible) cause = INTERRUPTED;
+                    }
+                    if (cause == SIGNALLED && timed && (nanos = deadline - System.nanoTime()) <= 0L) cause = TIMED_OUT;
+                    if (cause != SIGNALLED) {
+                        if (WAITING.compareAndSet(node, true, false)) {
+                            if (!enqueue(tail, node)) {
+                                node.bottom = true;
+                                break; // the top, no one will awaken it.
+                            }
+                        } else cause = SIGNALLED; // signalled first.
+                        continue;
+                    }
+                    if (timed) LockSupport.parkNanos(this, nanos);
+                    else LockSupport.park(this);
+                } else {
+                    LockSupport.park(this);
+                    if (Thread.interrupted()) interrupted = true;
+                }
+            }
+
+            if (node.bottom) acquireFirst(); // else, ownership handed by the predecessor.
+            if (LockStats.ENABLED) stats.reowned();
+
+            if (cause != SIGNALLED) unlinkAbandoned();
+            if (interrupted && cause != INTERRUPTED) Thread.currentThread().interrupt();
+            return cause;
+        }
+
+        @Override
+        public void await() throws InterruptedException {
+            if (Thread.interrupted()) throw new InterruptedException();
+            if (await(true, false, 0L) == INTERRUPTED) throw new InterruptedException();
+        }
+
+        @Override
+        public void awaitUninterruptibly() { await(false, false, 0L); }
+
+        @Override
+        public long awaitNanos(long nanosTimeout) throws InterruptedException {
+            if (Thread.interrupted()) throw new InterruptedException();
+            final long deadline = System.nanoTime() + nanosTimeout;
+            if (await(true, true, nanosTimeout) == INTERRUPTED) throw new InterruptedException();
+            return deadline - System.nanoTime();
+        }
+
+        @Override
+        public boolean await(long time, TimeUnit unit) throws InterruptedException {
+            if (Thread.interrupted()) throw new InterruptedException();
+            final int cause = await(true, true, unit.toNanos(time));
+            if (cause == INTERRUPTED) throw new InterruptedException();
+            return cause == SIGNALLED;
+        }
+
+        @Override
+        public boolean awaitUntil(Date deadline) throws InterruptedException {
+            return await(deadline.getTime() - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void signal() {
+            ConditionNode node;
+            while ((node = first) != null) {
+                if ((first = node.nextWaiter) == null) last = null;
+                node.nextWaiter = null;
+                if (transfer(node)) return;
+            }
+        }
+
+        @Override
+        public void signalAll() {
+            ConditionNode node = first;
+            first = last = null;
+            while (node != null) {
+                final ConditionNode next = node.nextWaiter;
+                node.nextWaiter = null;
+                transfer(node);
+                node = next;
+            }
+        }
     }
+
+    @Override
+    public LockStats stats() { return stats; }
+
+    @Override
+    public boolean isFair() { return true; }
+
+    @Override
+    public boolean isParking() { return true; }
 }
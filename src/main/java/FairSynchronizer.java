@@ -8,10 +8,11 @@ import java.util.concurrent.atomic.AtomicInteger;
  * Instead, relying solely on yielding operations.
  * As this type is a sort of busy-wait, it can support up to ~1200 concurrent Threads, at which point it MAY incur in
  * Lock-holder starvation due to cooperative yielding leading to runqueue inversion.
+ * See {@link TWASynchronizer} for a fair ticket lock that parks its far waiters.
  *
  * This synchronizer allows less throughput than the {@link FastSynchronizer}.
  * */
-public class FairSynchronizer {
+public class FairSynchronizer implements Synchronizer {
 
     AtomicInteger ticket = new AtomicInteger();
     AtomicInteger done = new AtomicInteger();
@@ -19,27 +20,65 @@ public class FairSynchronizer {
 
     static final int cores = - (Runtime.getRuntime().availableProcessors() / 2);
 
+    /** Null unless {@link LockStats#ENABLED}.*/
+    final LockStats stats = LockStats.create();
+
+    /**
+     * Idling of the tickets further than {@link #cores} from their turn, and of the rest.
+     * As nothing awakens a ticket, a {@link WaitPolicy#PARK} is bounded by {@link WaitPolicy#PARK_NANOS}.
+     * */
+    final WaitPolicy far, near;
+
+    public FairSynchronizer() { this(WaitPolicy.YIELD, WaitPolicy.SPIN); }
+
+    public FairSynchronizer(WaitPolicy far, WaitPolicy near) {
+        this.far = far;
+        this.near = near;
+    }
+
+    @Override
     public void acquire() {
         int currentTicket = this.ticket.incrementAndGet();
         int d = -1;
-        for (boolean yield = false;;) {
+        int i = 0;
+        long since = 0L;
+        boolean queued = false; // a ticket served on its first check counts as a fast-path hit.
+        for (boolean far = false;;) {
             int n_d = done.getAcquire();
             if (d != n_d) {
                 d = n_d;
                 n_d = n_d + 1 - currentTicket;
                 if (n_d == 0) break;
-                yield = n_d < cores;
+                if (far != (far = n_d < cores)) i = 0;
             }
-            if (yield) {
-                Thread.yield();
-            } else {
-                Thread.onSpinWait();
+            if (LockStats.ENABLED) {
+                if (!queued) {
+                    queued = true;
+                    since = stats.queued();
+                }
+                if (i == WaitPolicy.PARK) stats.parked();
             }
+            i = WaitPolicy.parkNanos(far ? this.far : near, i, this);
         }
         this.currentTicket = currentTicket;
+        if (LockStats.ENABLED) {
+            if (!queued) stats.fastPath();
+            else stats.acquired(since);
+        }
     }
 
+    @Override
     public void release() {
+        if (LockStats.ENABLED) stats.released();
         done.setRelease(currentTicket);
     }
+
+    @Override
+    public LockStats stats() { return stats; }
+
+    @Override
+    public boolean isFair() { return true; }
+
+    @Override
+    public boolean isParking() { return false; }
 }
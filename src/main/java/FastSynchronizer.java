@@ -1,5 +1,6 @@
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -10,10 +11,11 @@ import java.util.concurrent.atomic.AtomicInteger;
  * Instead, relying solely on yielding operations.
  * As this type is a sort of busy-wait, it can support up to 1200 concurrent Threads, at which point it MAY incur in
  * Lock-holder starvation due to cooperative yielding leading to runqueue inversion.
+ * See {@link TWASynchronizer} for a fair ticket lock that parks its far waiters.
  *
  * Theoretically this synchronizer allows more throughput than the {@link FairSynchronizer} version which is strictly fair, and performs slightly better..
  * */
-public class FastSynchronizer {
+public class FastSynchronizer implements Synchronizer {
 
     AtomicInteger ticket = new AtomicInteger();
     AtomicInteger done = new AtomicInteger();
@@ -28,6 +30,8 @@ public class FastSynchronizer {
 
     static final VarHandle BUSY;
     static final VarHandle CUR;
+    static final VarHandle THRESHOLD;
+    static final VarHandle RELEASED_AT;
 
     static {
         try {
@@ -37,45 +41,147 @@ public class FastSynchronizer {
             CUR = MethodHandles.lookup().findVarHandle(
                     FastSynchronizer.class, "cur",
             int.class);
+            THRESHOLD = MethodHandles.lookup().findVarHandle(
+                    FastSynchronizer.class, "threshold",
+            int.class);
+            RELEASED_AT = MethodHandles.lookup().findVarHandle(
+                    FastSynchronizer.class, "releasedAt",
+            long.class);
         } catch (NoSuchFieldException | IllegalAccessException e) {
             throw new ExceptionInInitializerError(e);
         }
     }
 
-    static final int cores = - (Runtime.getRuntime().availableProcessors() / 2);
-//    static final int cores = - Runtime.getRuntime().availableProcessors();
+    static final int cores = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The break-even of the threshold, over the hand-off latency (from the release that served a ticket to the ticket seeing it):
+     * a {@link #far} ticket served later than this grows it, as it should have been spinning,
+     * a {@link #near} ticket served later than this shrinks it, as its spinning did not buy a fast hand-off anyway (e.g. preempted spinners).
+     * The length of the critical section never enters the measure.
+     * */
+    static final long HANDOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(20);
+
+    /**
+     * Tickets further than this distance from their turn idle on {@link #far}, the rest on {@link #near}.
+     * Starts at half the available processors, and is steered between {@link #floor} and {@link #ceiling} by each served ticket,
+     * see {@link #adapt(boolean)}.
+     * Racy increments and decrements may be lost, which only slows the convergence.
+     * */
+    int threshold;
+    final int floor, ceiling;
+
+    /**
+     * Time of the last release that served a ticket, stored before {@link #done} is released,
+     * and read by that ticket once it saw {@link #done}, to measure its hand-off latency.
+     * */
+    long releasedAt;
+
+    /** Null unless {@link LockStats#ENABLED}.*/
+    final LockStats stats = LockStats.create();
+
+    /**
+     * Idling of the tickets further than {@link #threshold} from their turn, and of the rest.
+     * As nothing awakens a ticket, a {@link WaitPolicy#PARK} is bounded by {@link WaitPolicy#PARK_NANOS}.
+     * */
+    final WaitPolicy far, near;
+
+    public FastSynchronizer() { this(WaitPolicy.YIELD, WaitPolicy.SPIN); }
+
+    public FastSynchronizer(WaitPolicy far, WaitPolicy near) { this(far, near, 0, cores); }
+
+    /**
+     * @param floor the least distance the threshold can shrink to, 0 idles every ticket on {@code far}.
+     * @param ceiling the greatest distance the threshold can grow to.
+     * */
+    public FastSynchronizer(WaitPolicy far, WaitPolicy near, int floor, int ceiling) {
+        if (floor < 0 || ceiling < floor) throw new IllegalArgumentException("Expected 0 <= floor <= ceiling");
+        this.far = far;
+        this.near = near;
+        this.floor = floor;
+        this.ceiling = ceiling;
+        this.threshold = Math.max(floor, Math.min(ceiling, cores / 2));
+    }
+
+    /**
+     * Feedback of a ticket served by a release it waited on, from the hand-off latency, see {@link #HANDOFF_NANOS}.
+     * <p> The acquire fence orders the read of {@link #releasedAt} after the (opaque) read of {@link #done} that served the ticket,
+     * so that the stamp read is the one of that release, never of an earlier one.
+     * @param wasFar whether the ticket was idling on {@link #far} when its turn arrived.
+     * */
+    private void adapt(boolean wasFar) {
+        VarHandle.acquireFence();
+        if (System.nanoTime() - (long) RELEASED_AT.getOpaque(this) <= HANDOFF_NANOS) return;
+        final int t = (int) THRESHOLD.getOpaque(this);
+        if (wasFar) {
+            if (t < ceiling) THRESHOLD.setOpaque(this, t + 1);
+        } else if (t > floor) THRESHOLD.setOpaque(this, t - 1);
+    }
+
+    /**
+     * @return the current distance from their turn beyond which tickets stop idling on {@code near}, see {@link #threshold}.
+     * */
+    public int getThreshold() { return (int) THRESHOLD.getOpaque(this); }
 
     //Test with spinwait
+    @Override
     public void acquire() {
         if (!BUSY.compareAndSet(this, FALSE, TRUE)) {
+            final long since = LockStats.ENABLED ? stats.queued() : 0L;
             int currentTicket = this.ticket.incrementAndGet();
             int d = -1;
-            for (boolean yield = false;;) {
+            int i = 0;
+            boolean far = false;
+            for (;;) {
                 int n_d = done.getOpaque();
                 if (d != n_d) {
+                    if (n_d == currentTicket - 1) {
+                        if (d != -1) adapt(far); // d == -1: served on the first read, no hand-off was waited on.
+                        break;
+                    }
                     d = n_d;
-                    n_d = n_d + 1 - currentTicket;
-                    if (n_d == 0) break;
-                    yield = n_d < cores;
-                }
-                if (yield) {
-                    Thread.yield();
-                } else {
-                    Thread.onSpinWait();
+                    n_d = currentTicket - 1 - n_d;
+                    if (far != (far = n_d > (int) THRESHOLD.getOpaque(this))) i = 0;
                 }
+                if (LockStats.ENABLED && i == WaitPolicy.PARK) stats.parked();
+                i = WaitPolicy.parkNanos(far ? this.far : near, i, this);
             }
+            i = 0;
             while (!BUSY.compareAndSet(this, FALSE, NAN)) {
-                Thread.onSpinWait();
+                if (LockStats.ENABLED && i == WaitPolicy.PARK) stats.parked();
+                i = WaitPolicy.parkNanos(near, i, this);
             }
             cur = currentTicket;
+            if (LockStats.ENABLED) stats.acquired(since);
+        } else if (LockStats.ENABLED) stats.fastPath();
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        if (BUSY.compareAndSet(this, FALSE, TRUE)) {
+            if (LockStats.ENABLED) stats.fastPath();
+            return true;
         }
+        return false;
     }
 
+    @Override
     public void release() {
+        if (LockStats.ENABLED) stats.released();
         int prev = busy;
         BUSY.setRelease(this, FALSE);
         if (prev == NAN) {
+            RELEASED_AT.setOpaque(this, System.nanoTime());
             done.setRelease(cur);
         }
     }
+
+    @Override
+    public LockStats stats() { return stats; }
+
+    @Override
+    public boolean isFair() { return false; }
+
+    @Override
+    public boolean isParking() { return false; }
 }
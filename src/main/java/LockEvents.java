@@ -0,0 +1,146 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * JDK Flight Recorder events of the contended paths of {@link UnfairMCS}, so that its parks stop showing up as anonymous parking,
+ * and the lock instance behind a tail latency can be found in a recording ({@link LockEvent#lockId}).
+ * <ul>
+ *     <li> {@link ContendedAcquire}: from the failed fast-path to the acquisition (or abandonment), with the queue position at enqueue.
+ *     <li> {@link HeadSpin}: from becoming the HEAD to winning the fast-path.
+ *     <li> {@link HandOff}: from the release to the HEAD's acquisition.
+ * </ul>
+ * <p> Only emitted when the System property {@code mcs.jfr} is true at class-load time ({@link #ENABLED}),
+ * every hook in {@link UnfairMCS} is guarded by it, a static final constant, as {@link LockStats#ENABLED} is,
+ * so that the JIT folds them away when disabled, leaving the release a single {@code setRelease}, and the contended path free of allocations.
+ * <p> Even when enabled, events are only created while a recording runs ({@link #recording}), and uncontended acquisitions never reach any of them.
+ * Each event has a threshold, overridable in the settings of a recording
+ * (e.g. {@code mcs.ContendedAcquire#threshold=1 ms}), so that short waits emit nothing either.
+ * <p> The hand-off needs the time of the release, which {@link UnfairMCS#release()} only stamps while a recording runs.
+ * <pre>{@code
+ * // -Dmcs.jfr=true -XX:StartFlightRecording
+ * }</pre>
+ * */
+public final class LockEvents {
+
+    private LockEvents() {}
+
+    public static final boolean ENABLED = Boolean.getBoolean("mcs.jfr");
+
+    /**
+     * Kept by a {@link FlightRecorderListener}, registered only if {@link #ENABLED},
+     * so that no release pays for a {@code System.nanoTime()} outside recordings.
+     * */
+    static volatile boolean recording;
+
+    static final String HAND_OFF_THRESHOLD = "20 us";
+    static final long HAND_OFF_NANOS = 20_000L;
+
+    static {
+        if (ENABLED) FlightRecorder.addListener(new FlightRecorderListener() {
+            @Override
+            public void recorderInitialized(FlightRecorder recorder) { update(recorder); }
+
+            @Override
+            public void recordingStateChanged(Recording changed) { update(FlightRecorder.getFlightRecorder()); }
+
+            private void update(FlightRecorder recorder) {
+                boolean running = false;
+                for (Recording r : recorder.getRecordings()) {
+                    if (r.getState() == RecordingState.RUNNING) {
+                        running = true;
+                        break;
+                    }
+                }
+                recording = running;
+            }
+        });
+    }
+
+    @Category({"MCS", "Locks"})
+    abstract static class LockEvent extends Event {
+        @Label("Lock Class")
+        Class<?> lockClass;
+
+        @Label("Lock Id")
+        @Description("Identity hash code of the lock instance")
+        int lockId;
+
+        final void lock(Object lock) {
+            lockClass = lock.getClass();
+            lockId = System.identityHashCode(lock);
+        }
+    }
+
+    @Name("mcs.ContendedAcquire")
+    @Label("Contended Acquire")
+    @Description("An acquisition that missed the fast-path and went through the queue")
+    @Threshold("20 us")
+    static final class ContendedAcquire extends LockEvent {
+        @Label("Queue Position")
+        @Description("Nodes ahead at enqueue (racy), 0 if the node became the HEAD straight away")
+        int position;
+
+        @Label("Acquired")
+        @Description("False if the wait was abandoned, on timeout or interruption")
+        boolean acquired;
+    }
+
+    @Name("mcs.HeadSpin")
+    @Label("Head Spin")
+    @Description("The HEAD idling on the fast-path, from becoming the HEAD to acquiring")
+    @Threshold("10 us")
+    static final class HeadSpin extends LockEvent {}
+
+    @Name("mcs.HandOff")
+    @Label("Hand-off")
+    @Description("Latency from a release to the acquisition by the HEAD, emitted above " + HAND_OFF_THRESHOLD)
+    static final class HandOff extends LockEvent {
+        @Label("Latency")
+        @Timespan(Timespan.NANOSECONDS)
+        long latency;
+    }
+
+    /**
+     * @return a begun event, null outside recordings.
+     * */
+    static ContendedAcquire contendedAcquire() {
+        if (!recording) return null;
+        final ContendedAcquire event = new ContendedAcquire();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @return a begun event, null outside recordings.
+     * */
+    static HeadSpin headSpin() {
+        if (!recording) return null;
+        final HeadSpin event = new HeadSpin();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @param releasedAt the stamp of the release the HEAD acquired after, 0 if not stamped (the recording started in between).
+     * */
+    static void handOff(Object lock, long releasedAt) {
+        if (releasedAt == 0L) return;
+        final long latency = System.nanoTime() - releasedAt;
+        if (latency < HAND_OFF_NANOS) return;
+        final HandOff event = new HandOff();
+        if (event.isEnabled()) {
+            event.lock(lock);
+            event.latency = latency;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * The JMX view of a {@link LockStats}, registered by {@link LockRegistry}.
+ * */
+public interface LockMXBean {
+
+    /** The simple name of the synchronizer's class.*/
+    String getType();
+
+    boolean isFair();
+
+    long getQueueLength();
+
+    long getMaxQueueDepth();
+
+    long getFastPathAcquires();
+
+    long getQueuedAcquires();
+
+    /** Fast-path acquisitions over every acquisition, NaN if none.*/
+    double getFastPathRatio();
+
+    long getParks();
+
+    long getUnparks();
+
+    double getMeanHoldNanos();
+
+    double getMeanWaitNanos();
+
+    long getHoldNanosP50();
+
+    long getHoldNanosP90();
+
+    long getHoldNanosP99();
+
+    /** See {@link LockStats#reset()}.*/
+    void reset();
+}
@@ -0,0 +1,130 @@
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Hashtable;
+import java.util.Map;
+
+/**
+ * Opt-in registry of named synchronizers, exposed as {@link LockMXBean}s on the platform MBean server,
+ * under {@code mcs:type=Lock,name=<name>}, so that a lock convoy (a growing queue length, a falling fast-path ratio, a rising park count)
+ * shows up on a JMX dashboard without attaching a profiler.
+ * <p> Every figure comes from {@link Synchronizer#stats()}, so only locks collecting statistics ({@code -Dmcs.stats=true}) can be registered.
+ * <pre>{@code
+ * final Synchronizer lock = new UnfairMCS();
+ * LockRegistry.register("orders", lock);
+ * ...
+ * LockRegistry.unregister("orders");
+ * }</pre>
+ * */
+public final class LockRegistry {
+
+    static final String DOMAIN = "mcs";
+
+    private LockRegistry() {}
+
+    private static ObjectName name(String name) {
+        try {
+            return new ObjectName(DOMAIN, new Hashtable<>(Map.of(
+                    "type", "Lock",
+                    "name", ObjectName.quote(name)
+            )));
+        } catch (JMException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * @return the name the lock was registered under.
+     * @throws IllegalStateException if the lock collects no statistics, or if the name is taken.
+     * */
+    public static ObjectName register(String name, Synchronizer lock) {
+        final LockStats stats = lock.stats();
+        if (stats == null) throw new IllegalStateException(
+                lock.getClass().getSimpleName() + " collects no statistics, enable them with -Dmcs.stats=true");
+        final ObjectName objectName = name(name);
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new Bean(lock, stats), objectName);
+        } catch (InstanceAlreadyExistsException e) {
+            throw new IllegalStateException("A lock is already registered as " + name, e);
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+        return objectName;
+    }
+
+    /**
+     * @return false if nothing was registered under this name.
+     * */
+    public static boolean unregister(String name) {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(name(name));
+            return true;
+        } catch (InstanceNotFoundException e) {
+            return false;
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Bean implements LockMXBean {
+        private final Synchronizer lock;
+        private final LockStats stats;
+
+        Bean(Synchronizer lock, LockStats stats) {
+            this.lock = lock;
+            this.stats = stats;
+        }
+
+        @Override
+        public String getType() { return lock.getClass().getSimpleName(); }
+
+        @Override
+        public boolean isFair() { return lock.isFair(); }
+
+        @Override
+        public long getQueueLength() { return stats.getQueueLength(); }
+
+        @Override
+        public long getMaxQueueDepth() { return stats.getMaxQueueDepth(); }
+
+        @Override
+        public long getFastPathAcquires() { return stats.getFastPathAcquires(); }
+
+        @Override
+        public long getQueuedAcquires() { return stats.getQueuedAcquires(); }
+
+        @Override
+        public double getFastPathRatio() {
+            final long fast = stats.getFastPathAcquires();
+            return (double) fast / (fast + stats.getQueuedAcquires());
+        }
+
+        @Override
+        public long getParks() { return stats.getParks(); }
+
+        @Override
+        public long getUnparks() { return stats.getUnparks(); }
+
+        @Override
+        public double getMeanHoldNanos() { return (double) stats.getHoldNanos() / stats.getReleases(); }
+
+        @Override
+        public double getMeanWaitNanos() { return (double) stats.getWaitNanos() / stats.getQueuedAcquires(); }
+
+        @Override
+        public long getHoldNanosP50() { return stats.getHoldNanosPercentile(.5); }
+
+        @Override
+        public long getHoldNanosP90() { return stats.getHoldNanosPercentile(.9); }
+
+        @Override
+        public long getHoldNanosP99() { return stats.getHoldNanosPercentile(.99); }
+
+        @Override
+        public void reset() { stats.reset(); }
+    }
+}
@@ -0,0 +1,195 @@
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contention statistics of a single lock, see {@link Synchronizer#stats()}.
+ * <p> Only collected when the System property {@code mcs.stats} is true at class-load time ({@link #ENABLED}).
+ * Every hook in the synchronizers is guarded by {@code if (LockStats.ENABLED)}, a static final constant,
+ * so that the JIT folds the hooks away when disabled, leaving the default hot paths as they were.
+ * <p> Counters are striped ({@link LongAdder}), so that contended Threads do not contend again on the statistics,
+ * the queue length included, derived from the queued and dequeued counts.
+ * The max depth is sampled from it, once every {@link #DEPTH_SAMPLING} queued acquisitions (and on every read), so it is a lower bound,
+ * whose single {@link AtomicLong} is only written when the sample exceeds it.
+ * Times are accumulated in nanos, from the first attempt to queue up to the acquisition (wait), and from the acquisition to the release (hold).
+ * Hold times are also counted in power-of-two buckets, for {@link #getHoldNanosPercentile(double)}.
+ * <p> {@link #reset()} only moves the baselines the counters are read against, so that concurrent updates are never lost,
+ * and the queue length, read from the raw sums, stays right.
+ * See {@link LockRegistry} to expose them over JMX.
+ * <pre>{@code
+ * // -Dmcs.stats=true
+ * final LockStats stats = lock.stats();
+ * if (stats != null) log(stats);
+ * }</pre>
+ * */
+public final class LockStats {
+
+    public static final boolean ENABLED = Boolean.getBoolean("mcs.stats");
+
+    private final LongAdder
+            fastPath = new LongAdder(),
+            queued = new LongAdder(),
+            parks = new LongAdder(),
+            unparks = new LongAdder(),
+            holdNanos = new LongAdder(),
+            waitNanos = new LongAdder();
+
+    /** Queued attempts that ended (acquired or abandoned), never reset, as only read against the raw sum of {@link #queued}.*/
+    private final LongAdder dequeued = new LongAdder();
+
+    /** The greatest sampled queue length, see {@link #sampleDepth()}.*/
+    private final AtomicLong maxDepth = new AtomicLong();
+
+    /** A power of two, one queued acquisition in this many samples the queue length.*/
+    static final int DEPTH_SAMPLING = 1 << 6;
+
+    static final int BUCKETS = Long.SIZE;
+
+    /** Bucket b counts holds in [2^(b-1), 2^b) nanos, bucket 0 those of 0 nanos.*/
+    private final LongAdder[] holds = new LongAdder[BUCKETS];
+
+    /** Values of the counters at the last {@link #reset()}, only written by it.*/
+    private volatile long[] base = new long[6 + BUCKETS];
+
+    /** Written on acquisition, read on release, both by the holder.*/
+    private long acquiredAt;
+
+    /**
+     * @return a new instance if {@link #ENABLED}, null otherwise.
+     * */
+    static LockStats create() { return ENABLED ? new LockStats() : null; }
+
+    private LockStats() {
+        for (int b = 0; b < BUCKETS; b++) holds[b] = new LongAdder();
+    }
+
+    void fastPath() {
+        fastPath.increment();
+        acquiredAt = System.nanoTime();
+    }
+
+    /**
+     * @return the start of the wait.
+     * */
+    long queued() {
+        queued.increment();
+        if ((ThreadLocalRandom.current().nextInt() & (DEPTH_SAMPLING - 1)) == 0) sampleDepth();
+        return System.nanoTime();
+    }
+
+    /** Feeds the current queue length to {@link #maxDepth}.*/
+    private void sampleDepth() {
+        final long d = getQueueLength();
+        if (d > maxDepth.get()) maxDepth.accumulateAndGet(d, Math::max);
+    }
+
+    void acquired(long since) {
+        final long now = System.nanoTime();
+        waitNanos.add(now - since);
+        dequeued.increment();
+        acquiredAt = now;
+    }
+
+    /** A queued attempt that gave up (timed-out, interrupted or cancelled).*/
+    void abandoned(long since) {
+        waitNanos.add(System.nanoTime() - since);
+        dequeued.increment();
+    }
+
+    /** Re-acquired after a condition wait, which is neither a fast-path hit nor a queued acquisition.*/
+    void reowned() { acquiredAt = System.nanoTime(); }
+
+    void parked() { parks.increment(); }
+
+    void unparked() { unparks.increment(); }
+
+    void released() {
+        final long hold = Math.max(0L, System.nanoTime() - acquiredAt);
+        holdNanos.add(hold);
+        holds[BUCKETS - Long.numberOfLeadingZeros(hold)].increment();
+    }
+
+    public long getFastPathAcquires() { return fastPath.sum() - base[0]; }
+
+    /** Acquisitions (or abandoned attempts) that went through the queue.*/
+    public long getQueuedAcquires() { return queued.sum() - base[1]; }
+
+    /**
+     * A racy snapshot of the Threads currently queued.
+     * <p> The dequeued count is read first, so that every attempt it counts is already counted as queued.
+     * */
+    public long getQueueLength() {
+        final long out = dequeued.sum();
+        return Math.max(0L, queued.sum() - out);
+    }
+
+    /** The greatest sampled queue length, a lower bound of the real one, see {@link #DEPTH_SAMPLING}.*/
+    public long getMaxQueueDepth() {
+        sampleDepth();
+        return maxDepth.get();
+    }
+
+    public long getParks() { return parks.sum() - base[2]; }
+
+    public long getUnparks() { return unparks.sum() - base[3]; }
+
+    public long getHoldNanos() { return holdNanos.sum() - base[4]; }
+
+    public long getWaitNanos() { return waitNanos.sum() - base[5]; }
+
+    public long getReleases() {
+        final long[] base = this.base;
+        long total = 0;
+        for (int b = 0; b < BUCKETS; b++) total += holds[b].sum() - base[6 + b];
+        return total;
+    }
+
+    /**
+     * @param p in [0, 1].
+     * @return the upper bound of the power-of-two bucket holding the {@code p} quantile of the hold times, 0 if nothing was released yet.
+     * */
+    public long getHoldNanosPercentile(double p) {
+        if (!(p >= 0 && p <= 1)) throw new IllegalArgumentException("Expected 0 <= p <= 1");
+        final long[] base = this.base;
+        final long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int b = 0; b < BUCKETS; b++) total += counts[b] = holds[b].sum() - base[6 + b];
+        if (total <= 0) return 0L;
+        final long rank = Math.max(1L, (long) Math.ceil(p * total));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            if ((seen += counts[b]) >= rank) return (1L << b) - 1; // wraps to Long.MAX_VALUE for the last bucket.
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Restarts every counter from 0, and the max depth from the current queue length.
+     * */
+    public synchronized void reset() {
+        final long[] next = new long[6 + BUCKETS];
+        next[0] = fastPath.sum();
+        next[1] = queued.sum();
+        next[2] = parks.sum();
+        next[3] = unparks.sum();
+        next[4] = holdNanos.sum();
+        next[5] = waitNanos.sum();
+        for (int b = 0; b < BUCKETS; b++) next[6 + b] = holds[b].sum();
+        base = next;
+        maxDepth.set(getQueueLength());
+    }
+
+    @Override
+    public String toString() {
+        return "LockStats{" +
+                "fastPath=" + getFastPathAcquires() +
+                ", queued=" + getQueuedAcquires() +
+                ", queueLength=" + getQueueLength() +
+                ", maxQueueDepth=" + getMaxQueueDepth() +
+                ", parks=" + getParks() +
+                ", unparks=" + getUnparks() +
+                ", holdNanos=" + getHoldNanos() +
+                ", waitNanos=" + getWaitNanos() +
+                "}";
+    }
+}
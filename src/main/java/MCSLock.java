@@ -0,0 +1,86 @@
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link Lock} adapter backed by an unfair MCS queue ({@link UnfairMCS} by default, or {@link WeakUnfairMCS}),
+ * so that it can be dropped in wherever a {@link java.util.concurrent.locks.ReentrantLock} is expected.
+ * <p> {@link #tryLock()} barges through the fast-path exactly as {@link java.util.concurrent.locks.ReentrantLock#tryLock()} does.
+ * <p> When the backing synchronizer does not support queue abandonment ({@link Synchronizer#supportsTimeout()}),
+ * {@link #lockInterruptibly()} and {@link #tryLock(long, TimeUnit)} fall back to retrying the fast-path with a bounded exponential park,
+ * which never enters the queue, and so, never disturbs the Threads already waiting on it.
+ * <p> This lock is NOT reentrant, and does not track ownership: {@link #unlock()} must only be called by the holder,
+ * unless backed by a {@link ReentrantSynchronizer}.
+ * */
+public class MCSLock implements Lock {
+
+    static final long
+            MIN_BACKOFF = TimeUnit.MICROSECONDS.toNanos(1),
+            MAX_BACKOFF = TimeUnit.MILLISECONDS.toNanos(1);
+
+    final Synchronizer sync;
+
+    public MCSLock() { this(new UnfairMCS()); }
+
+    public MCSLock(boolean weak) { this(weak ? new WeakUnfairMCS() : new UnfairMCS()); }
+
+    /**
+     * @param sync any {@link Synchronizer} supporting {@link Synchronizer#tryAcquire()}.
+     * */
+    public MCSLock(Synchronizer sync) { this.sync = sync; }
+
+    @Override
+    public void lock() { sync.acquire(); }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        if (sync.supportsTimeout()) sync.acquireInterruptibly();
+        else {
+            if (Thread.interrupted()) throw new InterruptedException();
+            if (!sync.tryAcquire()) backoff(false, 0L);
+        }
+    }
+
+    @Override
+    public boolean tryLock() { return sync.tryAcquire(); }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        if (sync.supportsTimeout()) return sync.tryAcquire(unit.toNanos(time));
+        if (Thread.interrupted()) throw new InterruptedException();
+        if (sync.tryAcquire()) return true;
+        long nanos = unit.toNanos(time);
+        return nanos > 0 && backoff(true, System.nanoTime() + nanos);
+    }
+
+    private boolean backoff(boolean timed, long deadline) throws InterruptedException {
+        long backoff = MIN_BACKOFF;
+        for (;;) {
+            if (timed) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) return false;
+                LockSupport.parkNanos(this, Math.min(backoff, remaining));
+            } else LockSupport.parkNanos(this, backoff);
+            if (Thread.interrupted()) throw new InterruptedException();
+            if (sync.tryAcquire()) return true;
+            if (backoff < MAX_BACKOFF) backoff <<= 1;
+        }
+    }
+
+    @Override
+    public void unlock() { sync.release(); }
+
+    /**
+     * @throws UnsupportedOperationException if the backing synchronizer has no condition support (see {@link Synchronizer#newCondition()}).
+     * */
+    @Override
+    public Condition newCondition() { return sync.newCondition(); }
+
+    @Override
+    public String toString() {
+        return "MCSLock{" +
+                "sync=" + sync.getClass().getSimpleName() +
+                "}@".concat(Integer.toString(hashCode()));
+    }
+}
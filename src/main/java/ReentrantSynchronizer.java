@@ -0,0 +1,190 @@
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+
+/**
+ * Reentrant decorator of any {@link Synchronizer}, so that nested regions (as with {@code synchronized}) can be migrated to the MCS queues.
+ * <p> Only the outermost acquisition reaches the underlying synchronizer.
+ * Nested acquisitions cost a plain load of {@link #owner} and a plain increment of {@link #holds}, no atomic involved.
+ * <p> Both fields are plain since they are only ever written by the holder:
+ * a Thread can only read its own reference from {@link #owner} if it wrote it itself, and it always clears it before releasing.
+ * <pre>{@code
+ * final Synchronizer lock = Synchronizers.UNFAIR_MCS.createReentrant();
+ * }</pre>
+ * */
+public class ReentrantSynchronizer implements Synchronizer {
+
+    final Synchronizer sync;
+
+    Thread owner;
+    int holds;
+
+    public ReentrantSynchronizer(Synchronizer sync) {
+        if (sync instanceof ReentrantSynchronizer) throw new IllegalArgumentException("Synchronizer is already reentrant.");
+        this.sync = sync;
+    }
+
+    private void own(Thread current) {
+        owner = current;
+        holds = 1;
+    }
+
+    @Override
+    public void acquire() {
+        final Thread current = Thread.currentThread();
+        if (owner == current) {
+            holds++;
+            return;
+        }
+        sync.acquire();
+        own(current);
+    }
+
+    /**
+     * @throws IllegalMonitorStateException if the current Thread is not the holder.
+     * */
+    @Override
+    public void release() {
+        if (owner != Thread.currentThread()) throw new IllegalMonitorStateException();
+        if (--holds == 0) {
+            owner = null;
+            sync.release();
+        }
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        final Thread current = Thread.currentThread();
+        if (owner == current) {
+            holds++;
+            return true;
+        }
+        if (sync.tryAcquire()) {
+            own(current);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean tryAcquire(long nanos) throws InterruptedException {
+        final Thread current = Thread.currentThread();
+        if (owner == current) {
+            holds++;
+            return true;
+        }
+        if (sync.tryAcquire(nanos)) {
+            own(current);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void acquireInterruptibly() throws InterruptedException {
+        final Thread current = Thread.currentThread();
+        if (owner == current) {
+            holds++;
+            return;
+        }
+        sync.acquireInterruptibly();
+        own(current);
+    }
+
+    /**
+     * Clears every hold before the underlying condition releases the lock, restoring them once re-acquired.
+     * @throws UnsupportedOperationException if the underlying synchronizer has no condition support.
+     * */
+    @Override
+    public Condition newCondition() {
+        final Condition condition = sync.newCondition();
+        return new Condition() {
+            private int unown() {
+                if (owner != Thread.currentThread()) throw new IllegalMonitorStateException();
+                final int saved = holds;
+                owner = null;
+                holds = 0;
+                return saved;
+            }
+
+            private void reown(int saved) {
+                owner = Thread.currentThread();
+                holds = saved;
+            }
+
+            @Override
+            public void await() throws InterruptedException {
+                final int saved = unown();
+                try { condition.await(); }
+                finally { reown(saved); }
+            }
+
+            @Override
+            public void awaitUninterruptibly() {
+                final int saved = unown();
+                try { condition.awaitUninterruptibly(); }
+                finally { reown(saved); }
+            }
+
+            @Override
+            public long awaitNanos(long nanosTimeout) throws InterruptedException {
+                final int saved = unown();
+                try { return condition.awaitNanos(nanosTimeout); }
+                finally { reown(saved); }
+            }
+
+            @Override
+            public boolean await(long time, TimeUnit unit) throws InterruptedException {
+                final int saved = unown();
+                try { return condition.await(time, unit); }
+                finally { reown(saved); }
+            }
+
+            @Override
+            public boolean awaitUntil(Date deadline) throws InterruptedException {
+                final int saved = unown();
+                try { return condition.awaitUntil(deadline); }
+                finally { reown(saved); }
+            }
+
+            @Override
+            public void signal() {
+                if (owner != Thread.currentThread()) throw new IllegalMonitorStateException();
+                condition.signal();
+            }
+
+            @Override
+            public void signalAll() {
+                if (owner != Thread.currentThread()) throw new IllegalMonitorStateException();
+                condition.signalAll();
+            }
+        };
+    }
+
+    public boolean isHeldByCurrentThread() { return owner == Thread.currentThread(); }
+
+    /**
+     * @return the number of holds by the current Thread, 0 if not the holder.
+     * */
+    public int getHoldCount() { return owner == Thread.currentThread() ? holds : 0; }
+
+    @Override
+    public LockStats stats() { return sync.stats(); }
+
+    @Override
+    public boolean isFair() { return sync.isFair(); }
+
+    @Override
+    public boolean isParking() { return sync.isParking(); }
+
+    @Override
+    public boolean supportsTimeout() { return sync.supportsTimeout(); }
+
+    @Override
+    public String toString() {
+        return "ReentrantSynchronizer{" +
+                "sync=" + sync.getClass().getSimpleName() +
+                ", owner=" + owner +
+                "}@".concat(Integer.toString(hashCode()));
+    }
+}
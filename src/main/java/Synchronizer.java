@@ -0,0 +1,56 @@
+import java.util.concurrent.locks.Condition;
+
+/**
+ * Common contract shared by every synchronizer in this project, so that call sites can be written once
+ * and the underlying strategy swapped (see {@link Synchronizers}) whenever the contention profile of a lock changes.
+ * <p> Capability flags allow callers to choose (or assert) a strategy without knowing its concrete type:
+ * <ul>
+ *     <li>{@link #isFair()}: whether arrivals are served strictly in order, or a fast-path allows barging.</li>
+ *     <li>{@link #isParking()}: whether queued Threads park (reactive awakening), or busy-wait via spin/yield.</li>
+ *     <li>{@link #supportsTimeout()}: whether a waiter can abandon the queue before its turn arrives.</li>
+ * </ul>
+ * None of these implementations are reentrant (see {@link ReentrantSynchronizer}), and {@link #release()} must only be called by the process that acquired.
+ * */
+public interface Synchronizer {
+    void acquire();
+
+    void release();
+
+    /**
+     * Attempts to acquire ONLY if the lock is immediately available, skipping the queue when successful (barging).
+     * @return true if acquired.
+     * @throws UnsupportedOperationException if this strategy has no immediate acquisition path.
+     * */
+    default boolean tryAcquire() { throw new UnsupportedOperationException(getClass().getSimpleName().concat(" does not support tryAcquire()")); }
+
+    /**
+     * Waits at most {@code nanos} for the lock, abandoning the queue if the time elapses.
+     * @return true if acquired, false if timed out.
+     * @throws InterruptedException if interrupted while waiting.
+     * @throws UnsupportedOperationException if {@link #supportsTimeout()} is false.
+     * */
+    default boolean tryAcquire(long nanos) throws InterruptedException { throw new UnsupportedOperationException(getClass().getSimpleName().concat(" does not support timeouts")); }
+
+    /**
+     * @throws InterruptedException if interrupted while waiting, abandoning the queue.
+     * @throws UnsupportedOperationException if {@link #supportsTimeout()} is false.
+     * */
+    default void acquireInterruptibly() throws InterruptedException { throw new UnsupportedOperationException(getClass().getSimpleName().concat(" does not support timeouts")); }
+
+    /**
+     * @return a {@link Condition} whose waiters release this synchronizer while waiting, and re-acquire it before returning.
+     * @throws UnsupportedOperationException if this strategy has no condition support.
+     * */
+    default Condition newCondition() { throw new UnsupportedOperationException(getClass().getSimpleName().concat(" does not support conditions")); }
+
+    /**
+     * @return the contention statistics of this lock, null unless {@link LockStats#ENABLED} and collected by this strategy.
+     * */
+    default LockStats stats() { return null; }
+
+    boolean isFair();
+
+    boolean isParking();
+
+    default boolean supportsTimeout() { return false; }
+}
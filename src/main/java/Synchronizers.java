@@ -0,0 +1,62 @@
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Factory of every {@link Synchronizer} strategy in this project.
+ * <p> Each constant name doubles as its configuration key (case-insensitive), matching the labels used in the benchmark charts,
+ * e.g. {@code "unfair_mcs"}, so that the strategy behind a given lock can be picked per deployment:
+ * <pre>{@code
+ * final Synchronizer lock = Synchronizers.fromProperty("cache.lock", Synchronizers.UNFAIR_MCS);
+ * }</pre>
+ * */
+public enum Synchronizers {
+    UNFAIR_MCS(UnfairMCS::new),
+    WEAK_UNFAIR_MCS(WeakUnfairMCS::new),
+    FAIR_MCS(FairMCS::new),
+    UNFAIR_BUSY_MCS(UnfairBusyMCS::new),
+    FAIR_BUSY_MCS(FairBusyMCS::new),
+    FAST_SYNCHRONIZER(FastSynchronizer::new),
+    FAIR_SYNCHRONIZER(FairSynchronizer::new),
+    TWA_SYNCHRONIZER(TWASynchronizer::new),
+    COHORT_MCS(CohortMCS::new),
+    // per-Thread node recycling
+    UNFAIR_MCS_RECYCLED(() -> new UnfairMCS(true)),
+    WEAK_UNFAIR_MCS_RECYCLED(() -> new WeakUnfairMCS(true)),
+    FAIR_MCS_RECYCLED(() -> new FairMCS(true)),
+    UNFAIR_BUSY_MCS_RECYCLED(() -> new UnfairBusyMCS(true)),
+    FAIR_BUSY_MCS_RECYCLED(() -> new FairBusyMCS(true))
+    ;
+    private final Supplier<Synchronizer> factory;
+
+    Synchronizers(Supplier<Synchronizer> factory) { this.factory = factory; }
+
+    public Synchronizer create() { return factory.get(); }
+
+    /**
+     * @return a {@link ReentrantSynchronizer} backed by a new instance of this strategy.
+     * */
+    public Synchronizer createReentrant() { return new ReentrantSynchronizer(create()); }
+
+    /**
+     * @param key the case-insensitive name of the strategy.
+     * @throws IllegalArgumentException if no strategy matches the key.
+     * */
+    public static Synchronizers of(String key) {
+        String k = key.trim().toUpperCase();
+        for (Synchronizers s:values()
+        ) {
+            if (s.name().equals(k)) return s;
+        }
+        throw new IllegalArgumentException("No Synchronizer found for key [" + key + "]"
+                + "\n    Options = " + Arrays.toString(values())
+        );
+    }
+
+    /**
+     * Creates the strategy named by the System property {@code key}, or {@code defaultType} if the property is absent.
+     * */
+    public static Synchronizer fromProperty(String key, Synchronizers defaultType) {
+        String value = System.getProperty(key);
+        return (value == null ? defaultType : of(value)).create();
+    }
+}
@@ -0,0 +1,163 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ticket lock with a waiting array (TWA), the parking counterpart of {@link FairSynchronizer}.
+ * This synchronizer IS 100% FAIR and SEQUENTIALLY CONSISTENT within the synchronized body.
+ *
+ * <p> Tickets within {@link #NEAR} of their turn idle on {@link #done} (via {@link #near}), as in {@link FairSynchronizer}.
+ * Tickets further away park on a slot of a fixed array shared by every instance, hashed by lock and ticket,
+ * and each {@link #release()} awakens only the slot of the single ticket that has just come within {@link #NEAR},
+ * so that the releasing process never touches the far waiters as a whole, and the array never grows with them.
+ * <p> Slots may collide (any two tickets {@link #SLOTS} apart, or two locks), the awakened Threads simply re-check their distance and park again.
+ * Since the array is static, the collisions cross instances: a release of one lock may drain, and spuriously awaken, the waiters of another,
+ * which then push themselves back onto the slot.
+ * <p> A waiter lets go of its Thread as soon as it is back from its park (see {@link #parkFar(int)}), drained or not,
+ * so the array never retains a Thread that is not parked on it, whatever lock that Thread waited on, and however long the slot goes undrained.
+ * <p> This lifts the ~1200 Threads ceiling of the yielding ticket synchronizers, since only {@link #NEAR} + 1 Threads are awake at a time (barring slot collisions).
+ * */
+public class TWASynchronizer implements Synchronizer {
+
+    private static final class Waiter {
+        /** Cleared once the waiter is back from its park, marking it dead.*/
+        Thread current = Thread.currentThread();
+        Waiter next;
+    }
+
+    private static final class Slot {
+        volatile Waiter waiters;
+    }
+
+    static final int SLOTS = 1 << 12, MASK = SLOTS - 1;
+
+    private static final Slot[] waiting = new Slot[SLOTS];
+
+    /**
+     * Tickets this close to their turn do not park.
+     * */
+    static final int NEAR = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    static final int NEAR_SPINS = 1 << 6;
+
+    private static final VarHandle WAITERS;
+
+    static {
+        try {
+            WAITERS = MethodHandles.lookup().findVarHandle(
+                    Slot.class, "waiters",
+                    Waiter.class);
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        for (int i = 0; i < SLOTS; i++) waiting[i] = new Slot();
+    }
+
+    final AtomicInteger ticket = new AtomicInteger();
+    final AtomicInteger done = new AtomicInteger();
+    int currentTicket;
+
+    /** Spreads the slots of different instances across the array.*/
+    private final int hash = System.identityHashCode(this) * 0x9E3779B9;
+
+    /** Null unless {@link LockStats#ENABLED}.*/
+    final LockStats stats = LockStats.create();
+
+    /**
+     * Idling of the tickets within {@link #NEAR} of their turn.
+     * As nothing awakens them, a {@link WaitPolicy#PARK} is bounded by {@link WaitPolicy#PARK_NANOS}.
+     * */
+    final WaitPolicy near;
+
+    /**
+     * Near tickets spin {@link #NEAR_SPINS} times before yielding, since the holder may be preempted by them.
+     * */
+    public TWASynchronizer() { this(WaitPolicy.spinThenYield(NEAR_SPINS)); }
+
+    public TWASynchronizer(WaitPolicy near) { this.near = near; }
+
+    private Slot slot(int ticket) { return waiting[(hash + ticket) & MASK]; }
+
+    /**
+     * Pushes the current Thread onto the ticket's slot, and parks if still far from its turn.
+     * <p> The push (a CAS) and the re-read of {@link #done} are both volatile, as are the store of {@link #done} and the swap in {@link #release()},
+     * so either the releaser finds this Thread in the slot, or this Thread finds the new {@link #done}.
+     * <p> Back from the park (or not parked at all), the Waiter is marked dead, and popped if still on top,
+     * while the dead Waiters further down are skipped by the next push, or dropped by the next drain of the slot,
+     * so a dead Waiter never holds its Thread, and a drain never retains more than the live ones.
+     * A drain that read the Thread before it was cleared still costs a spurious unpark to its next park.
+     * */
+    private void parkFar(int currentTicket) {
+        final Slot slot = slot(currentTicket);
+        final Waiter w = new Waiter();
+        Waiter h, n;
+        do {
+            n = h = slot.waiters;
+            while (n != null && n.current == null) n = n.next;
+            w.next = n;
+        } while (!WAITERS.compareAndSet(slot, h, w));
+        if (currentTicket - 1 - done.get() > NEAR) {
+            if (LockStats.ENABLED) stats.parked();
+            LockSupport.park(this);
+        }
+        w.current = null;
+        if (slot.waiters == w) WAITERS.compareAndSet(slot, w, w.next);
+    }
+
+    @Override
+    public void acquire() {
+        final int currentTicket = ticket.incrementAndGet();
+        int i = 0;
+        long since = 0L;
+        boolean queued = false; // a ticket served on its first check counts as a fast-path hit.
+        for (int d; (d = currentTicket - 1 - done.get()) != 0;) {
+            if (LockStats.ENABLED && !queued) {
+                queued = true;
+                since = stats.queued();
+            }
+            if (d > NEAR) {
+                parkFar(currentTicket);
+                i = 0;
+            }
+            else {
+                if (LockStats.ENABLED && i == WaitPolicy.PARK) stats.parked();
+                i = WaitPolicy.parkNanos(near, i, this);
+            }
+        }
+        this.currentTicket = currentTicket;
+        if (LockStats.ENABLED) {
+            if (!queued) stats.fastPath();
+            else stats.acquired(since);
+        }
+    }
+
+    /**
+     * Serves the next ticket, and awakens the slot of the ticket now at {@link #NEAR} from its turn, if anyone parked there.
+     * */
+    @Override
+    public void release() {
+        if (LockStats.ENABLED) stats.released();
+        final int c = currentTicket;
+        done.set(c);
+        final Slot slot = slot(c + 1 + NEAR);
+        if (slot.waiters != null) {
+            Waiter w = (Waiter) WAITERS.getAndSet(slot, null);
+            for (Thread t; w != null; w = w.next) {
+                if ((t = w.current) != null) {
+                    if (LockStats.ENABLED) stats.unparked();
+                    LockSupport.unpark(t);
+                }
+            }
+        }
+    }
+
+    @Override
+    public LockStats stats() { return stats; }
+
+    @Override
+    public boolean isFair() { return true; }
+
+    @Override
+    public boolean isParking() { return true; }
+}
@@ -9,7 +9,7 @@ import java.lang.invoke.VarHandle;
  * is allowed to take place while the current process is still running.
  * <p> As is usual the MCS tradeoff of not using the CLH ({@link java.util.concurrent.locks.ReentrantReadWriteLock}) version is its increased memory allocation in exchange for flag locality and contention latency spread through {@link #TAIL} and `witness.next` during Node pushes.
  * */
-public class UnfairBusyMCS {
+public class UnfairBusyMCS implements Synchronizer {
     private static class Node {
 
         final Thread current = Thread.currentThread();
@@ -18,6 +18,27 @@ public class UnfairBusyMCS {
         volatile Node next;
         static final Node removed = new Node();
 
+        /** Whether `next` still holds a value from the node's previous life, owner-confined.*/
+        boolean stale;
+
+        static final ThreadLocal<Node[]> cache = ThreadLocal.withInitial(() -> new Node[1]);
+
+        /**
+         * The node of the current Thread, which has always been polled by the time its owner tries to acquire again.
+         * <p> Its `next` is left as it was after polling (never null), so that stale pushers still holding it as their tail cannot link behind it,
+         * until it is published again, see {@link UnfairBusyMCS#published(Node)}.
+         * */
+        static Node recycled() {
+            final Node[] slot = cache.get();
+            Node n = slot[0];
+            if (n == null) slot[0] = n = new Node();
+            else {
+                PARKED.set(n, true);
+                n.stale = true;
+            }
+            return n;
+        }
+
         @Override
         public String toString() {
             return "Node{" +
@@ -64,19 +85,58 @@ public class UnfairBusyMCS {
     volatile boolean busy = false;
     static final VarHandle BUSY;
 
+    final boolean recycle;
+
+    /**
+     * Idling of the nodes behind the HEAD, and of the HEAD itself, while the fast-path is busy.
+     * */
+    final WaitPolicy queued, head;
+
+    public UnfairBusyMCS() { this(false); }
+
+    /**
+     * @param recycle if true, contended acquisitions reuse a per-Thread node, so that the steady-state contended path allocates nothing.
+     * */
+    public UnfairBusyMCS(boolean recycle) { this(recycle, WaitPolicy.YIELD, WaitPolicy.SPIN); }
+
+    /**
+     * @param queued default {@link WaitPolicy#YIELD}, as predecessors do not unpark, a {@link WaitPolicy#PARK} is bounded by {@link WaitPolicy#PARK_NANOS}.
+     * @param head default {@link WaitPolicy#SPIN}, since nothing awakens the HEAD, a {@link WaitPolicy#PARK} is bounded by {@link WaitPolicy#PARK_NANOS}.
+     * */
+    public UnfairBusyMCS(boolean recycle, WaitPolicy queued, WaitPolicy head) {
+        this.recycle = recycle;
+        this.queued = queued;
+        this.head = head;
+    }
+
+    /**
+     * Clears the `next` of a recycled node, once it has been published as the {@link #BOTTOM}.
+     * <p> Pushers that read this node as the {@link #BOTTOM} before the clearing simply retry,
+     * while stale pushers from its previous life link behind it, where they belong.
+     * <p> Whether to clear is decided by {@link Node#stale}, never by re-reading `next`, which may already hold a fresh successor.
+     * */
+    private static void published(Node nextNode) {
+        if (nextNode.stale) {
+            nextNode.stale = false;
+            NEXT.setRelease(nextNode, null);
+        }
+    }
+
     private Node bottomSet(Node nextNode) {
         Node wit;
         if ((wit = (Node) BOTTOM.compareAndExchange(this, null, nextNode)) == null) {
             top = nextNode;
+            published(nextNode);
             return null;
         } else return wit;
     }
 
+    @Override
     public void acquire() {
         if (!BUSY.compareAndSet(this, false, true)
         ) {
             Node h = bottom;
-            final Node nextNode = new Node();
+            final Node nextNode = recycle ? Node.recycled() : new Node();
 
             if (h != null || (h = bottomSet(nextNode)) != null) {
                 cont:
@@ -84,8 +144,10 @@ public class UnfairBusyMCS {
                     do {
                         if (NEXT.compareAndSet(h, null, nextNode)) {
                             BOTTOM.compareAndSet(this, h, nextNode);
+                            published(nextNode);
+                            int i = 0;
                             while (nextNode.parked) {
-                                Thread.yield();
+                                i = WaitPolicy.parkNanos(queued, i, this);
                             }
                             break cont;
                         }
@@ -97,8 +159,9 @@ public class UnfairBusyMCS {
 
             // ------ set busy
 
+            int i = 0;
             while (!BUSY.compareAndSet(this, false, true)) {
-                Thread.onSpinWait();
+                i = WaitPolicy.parkNanos(head, i, this);
             }
 
 
@@ -137,7 +200,17 @@ public class UnfairBusyMCS {
         }
     }
 
+    @Override
+    public boolean tryAcquire() { return BUSY.compareAndSet(this, false, true); }
+
+    @Override
     public void release() {
         BUSY.setRelease(this, false);
     }
+
+    @Override
+    public boolean isFair() { return false; }
+
+    @Override
+    public boolean isParking() { return false; }
 }
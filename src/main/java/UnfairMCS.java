@@ -1,6 +1,14 @@
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
 
 /**
  * In MCS’ strategies, we can offset latency by the spreading it across multiple `node.next`, as opposed to CLH which focuses its CAS pressures on a single point of contention (TAIL).
@@ -9,8 +17,12 @@ import java.util.concurrent.locks.LockSupport;
  * And once the lock is finally acquired, immediately waking up the next node, so that it has a chance to context-switch before the synchronized body sequence even finishes processing before releasing the lock.
  * My argument is that MCS’ type strategies are more efficient energy-wise since they allow a faster sleep (on 3rd places onwards inside the queue in my specific implementation), and a faster wake-up (as the HEAD will always stay awake busy-waiting).
  * The contention being spread across individual `node.next` references dissipates the latency contention, relieving it on unbounded node CAS’es, instead of a single focused CAS on TAIL.
+ * <p> Waiters of {@link #tryAcquire(long)} and {@link #acquireInterruptibly()} can abandon the queue, so that timed-out work is shed instead of convoyed.
+ * <p> With a {@link #head} policy that parks, the HEAD stops spinning after its budget, and is awakened by {@link #release()}, see {@link #headIdle(int, long)}.
+ * <p> {@link #acquireAsync()} queues a future instead of a Thread, completed by the releasing process, see {@link AsyncNode}.
+ * <p> Conditions ({@link #newCondition()}) splice their signalled waiters onto this same queue, see {@link ConditionObject}.
  * */
-public class UnfairMCS {
+public class UnfairMCS implements Synchronizer {
     private static class Node {
 
         final Thread current = Thread.currentThread();
@@ -19,6 +31,30 @@ public class UnfairMCS {
         volatile Node next;
         static final Node removed = new Node();
 
+        /** Whether `next` still holds a value from the node's previous life, owner-confined.*/
+        boolean stale;
+
+        /** Its predecessor's plus one, written before linking, so that the distance to the {@link #top} is its queue position.*/
+        int seq;
+
+        static final ThreadLocal<Node[]> cache = ThreadLocal.withInitial(() -> new Node[1]);
+
+        /**
+         * The node of the current Thread, which has always been polled by the time its owner tries to acquire again.
+         * <p> Its `next` is left as it was after polling (never null), so that stale pushers still holding it as their tail cannot link behind it,
+         * until it is published again, see {@link UnfairMCS#published(Node)}.
+         * */
+        static Node recycled() {
+            final Node[] slot = cache.get();
+            Node n = slot[0];
+            if (n == null) slot[0] = n = new Node();
+            else {
+                PARKED.set(n, true);
+                n.stale = true;
+            }
+            return n;
+        }
+
         @Override
         public String toString() {
             return "Node{" +
@@ -28,6 +64,89 @@ public class UnfairMCS {
         }
     }
 
+    /**
+     * Node of a {@link ConditionObject} waiter, later reused as its node in the lock queue.
+     * */
+    private static final class ConditionNode extends Node {
+        /** Guarded by the lock.*/
+        ConditionNode nextWaiter;
+        /** Won by whoever moves the node onto the lock queue: the signaller, or the waiter abandoning the condition.*/
+        volatile boolean waiting = true;
+    }
+
+    /**
+     * Node of an {@link #acquireAsync(Executor)} waiter, with no Thread behind it.
+     * <p> Awakened by {@link #poll(Node)} straight into {@link #asyncHead(AsyncNode)}, on the polling Thread,
+     * and from there on, the HEAD is driven by whichever Thread releases the lock.
+     * <p> Settling its future from the outside abandons the queue as a timed-out node would, by winning the {@link #PARKED} flag, so that the next poll skips it, see {@link AsyncFuture}.
+     * Once awakened it is too late, the lock is already on its way.
+     * */
+    private final class AsyncNode extends Node {
+        final Executor executor;
+        final long since = LockStats.ENABLED ? stats.queued() : 0L;
+        final AsyncFuture future = new AsyncFuture(this);
+        /** Whether a {@link #HEAD_PARK_NANOS} timer is pending for this node, so that at most one is ever scheduled, see {@link #asyncHead(AsyncNode)}.*/
+        volatile boolean timer;
+
+        AsyncNode(Executor executor) { this.executor = executor; }
+    }
+
+    /**
+     * The future of an {@link AsyncNode}, whose every outside completion ({@link #cancel(boolean)}, {@link #complete(Object)},
+     * {@link #completeExceptionally(Throwable)}, and so {@link #orTimeout(long, TimeUnit)} and {@link #completeOnTimeout(Object, long, TimeUnit)})
+     * must first win the {@link #PARKED} flag of its node (or claim it from {@link #parkedHead}), abandoning the queue.
+     * If the lock is already on its way to the node, they fail, and the future completes with the {@link Permit} regardless.
+     * Completions that cannot be routed through the flag ({@code obtrude*}, {@code completeAsync}) are not supported.
+     * */
+    private final class AsyncFuture extends CompletableFuture<Permit> {
+        private final AsyncNode node;
+
+        AsyncFuture(AsyncNode node) { this.node = node; }
+
+        /**
+         * Either still queued, or the HEAD parked in {@link #parkedHead}, which is claimed back as a release would, and polled, handing the turn over.
+         * */
+        private boolean abandon() {
+            if (!PARKED.compareAndSet(node, true, false)) {
+                if (!PARKED_HEAD.compareAndSet(UnfairMCS.this, node, null)) return false;
+                poll(node);
+            }
+            if (LockStats.ENABLED) stats.abandoned(node.since);
+            return true;
+        }
+
+        /** Completion on behalf of the lock, the node's turn has arrived.*/
+        boolean grant() { return super.complete(permit); }
+
+        /** The lock was acquired on the node's behalf, but could not be handed over.*/
+        boolean fail(Throwable e) { return super.completeExceptionally(e); }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) { return abandon() && super.cancel(mayInterruptIfRunning); }
+
+        @Override
+        public boolean complete(Permit value) { return abandon() && super.complete(value); }
+
+        @Override
+        public boolean completeExceptionally(Throwable ex) { return abandon() && super.completeExceptionally(ex); }
+
+        @Override
+        public void obtrudeValue(Permit value) { throw new UnsupportedOperationException(); }
+
+        @Override
+        public void obtrudeException(Throwable ex) { throw new UnsupportedOperationException(); }
+
+        @Override
+        public CompletableFuture<Permit> completeAsync(Supplier<? extends Permit> supplier, Executor executor) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Permit> completeAsync(Supplier<? extends Permit> supplier) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
     static final VarHandle NEXT;
     static final VarHandle PARKED;
 
@@ -51,6 +170,12 @@ public class UnfairMCS {
             FAST_PATH = MethodHandles.lookup().findVarHandle(
                     UnfairMCS.class, "busy",
                     boolean.class);
+            PARKED_HEAD = MethodHandles.lookup().findVarHandle(
+                    UnfairMCS.class, "parkedHead",
+                    Object.class);
+            WAITING = MethodHandles.lookup().findVarHandle(
+                    ConditionNode.class, "waiting",
+                    boolean.class);
         } catch (NoSuchFieldException | IllegalAccessException e) {
             throw new ExceptionInInitializerError(e);
         }
@@ -64,98 +189,626 @@ public class UnfairMCS {
     volatile boolean busy = false;
     static final VarHandle FAST_PATH;
 
+    static final VarHandle WAITING;
+
+    /**
+     * The Thread of the HEAD, once its {@link #head} policy gave up idling and parked, see {@link #headIdle(int, long)},
+     * or the HEAD itself if an {@link AsyncNode}, see {@link #asyncHead(AsyncNode)}.
+     * */
+    volatile Object parkedHead;
+    static final VarHandle PARKED_HEAD;
+
+    /**
+     * Bound of a parked HEAD, only reached if {@link #release()} missed it.
+     * */
+    static final long HEAD_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    final boolean recycle;
+
+    /** Null unless {@link LockStats#ENABLED}.*/
+    final LockStats stats = LockStats.create();
+
+    /** Stamped by the releasing process only if {@link LockEvents#ENABLED}, while {@link LockEvents#recording}, and only if someone is queued, published by the release of the fast-path.*/
+    private long releasedAt;
+
+    /**
+     * Idling of the nodes behind the HEAD, awakened by their predecessor, and of the HEAD itself, while the fast-path is busy.
+     * */
+    final WaitPolicy queued, head;
+
+    public UnfairMCS() { this(false); }
+
+    /**
+     * @param recycle if true, contended acquisitions reuse a per-Thread node, so that the steady-state contended path allocates nothing.
+     * */
+    public UnfairMCS(boolean recycle) { this(recycle, WaitPolicy.PARKING, WaitPolicy.SPIN); }
+
+    /**
+     * @param queued default {@link WaitPolicy#PARKING}, also followed by timed and interruptible acquisitions, whose parks are bounded by their deadline.
+     * @param head default {@link WaitPolicy#SPIN}, a {@link WaitPolicy#PARK} parks the HEAD until {@link #release()},
+     *             so that long critical sections do not burn a whole core, e.g. {@code WaitPolicy.spinThenPark(64)}.
+     * */
+    public UnfairMCS(boolean recycle, WaitPolicy queued, WaitPolicy head) {
+        this.recycle = recycle;
+        this.queued = queued;
+        this.head = head;
+    }
+
+    /**
+     * Clears the `next` of a recycled node, once it has been published as the {@link #TAIL}.
+     * <p> Pushers that read this node as the {@link #TAIL} before the clearing simply retry,
+     * while stale pushers from its previous life link behind it, where they belong.
+     * <p> Whether to clear is decided by {@link Node#stale}, never by re-reading `next`, which may already hold a fresh successor.
+     * */
+    private static void published(Node nextNode) {
+        if (nextNode.stale) {
+            nextNode.stale = false;
+            NEXT.setRelease(nextNode, null);
+        }
+    }
+
     private Node bottomSet(Node nextNode) {
         Node wit;
         if ((wit = (Node) TAIL.compareAndExchange(this, null, nextNode)) == null) {
             top = nextNode;
-
+            published(nextNode);
             return null;
         } else return wit;
     }
 
+    /**
+     * A racy read of {@link #top}, only meant for {@link LockEvents.ContendedAcquire}.
+     * @return the nodes ahead of a node just linked behind a predecessor.
+     * */
+    private int position(Node nextNode) {
+        final Node t = top;
+        return t == null ? 0 : Math.max(0, nextNode.seq - t.seq);
+    }
+
+    /**
+     * @return true if the node was linked behind a predecessor and needs to wait for it, false if it became the {@link #top}.
+     * */
+    private boolean enqueue(Node h, Node nextNode) {
+        if (h != null || (h = bottomSet(nextNode)) != null) {
+            do {
+                do {
+                    nextNode.seq = h.seq + 1;
+                    if (NEXT.compareAndSet(h, null, nextNode)) {
+                        TAIL.compareAndSet(this, h, nextNode);
+                        published(nextNode);
+                        return true;
+                    }
+                    h = tail;
+                } while (h != null);
+                h = bottomSet(nextNode);
+            } while (h != null);
+        }
+        return false;
+    }
+
+    /**
+     * Removes the {@code first} node, and awakens the next one.
+     * <p> Nodes that abandoned the queue (see {@link #tryAcquire(long)}) lose the {@link #PARKED} race against this poll, and get polled on their behalf.
+     * */
+    private void poll(Node first) {
+        for (;;) {
+            Node next = first.next;
+            if (next == null
+                    && (next = (Node) NEXT.compareAndExchange(first, null, Node.removed)) == null) {
+                // `removed` denies any further pushes on `first`, so the TAIL can only be `first` at this point.
+                if (TAIL.compareAndSet(this, first, null)) { // top will only be replaced sequentially,
+                    // UNLESS when being set to null, since new pushes occur asynchronously to this polling.
+                    TOP.compareAndSet(this, first, null);
+                }
+                return;
+            }
+            top = next;
+            if (PARKED.compareAndSet(next, true, false)) {
+                if (next instanceof AsyncNode) asyncHead((AsyncNode) next);
+                else {
+                    if (LockStats.ENABLED) stats.unparked();
+                    LockSupport.unpark(next.current);
+                }
+                return;
+            }
+            first = next;
+        }
+    }
+
+    /**
+     * Idling of the HEAD while the fast-path is busy.
+     * <p> Once {@link #head} asks to park, the HEAD publishes itself in {@link #parkedHead}, and, past a full fence,
+     * re-checks {@link #busy} with a volatile load before parking, so that its own store can never be reordered after that load (StoreLoad),
+     * and a release that landed before the publication is always seen here.
+     * The fence stays on this (already slow) side, {@link #release()} keeps its single {@code setRelease},
+     * so its load of {@link #parkedHead} may still float above its store, missing a HEAD that is just publishing itself,
+     * which is why the park is bounded by {@link #HEAD_PARK_NANOS}.
+     * @param nanos the most the HEAD is willing to park.
+     * @return the next iteration.
+     * */
+    private int headIdle(int i, long nanos) {
+        if (i != WaitPolicy.PARK) return head.idle(i);
+        parkedHead = Thread.currentThread();
+        VarHandle.fullFence();
+        if ((boolean) FAST_PATH.getVolatile(this)) {
+            if (LockStats.ENABLED) stats.parked();
+            LockSupport.parkNanos(this, Math.min(nanos, HEAD_PARK_NANOS));
+        }
+        PARKED_HEAD.setOpaque(this, null);
+        return WaitPolicy.PARK;
+    }
+
+    @Override
     public void acquire() {
         if (!FAST_PATH.compareAndSet(this, false, true)
         ) {
+            final long since = LockStats.ENABLED ? stats.queued() : 0L;
+            final LockEvents.ContendedAcquire event = LockEvents.ENABLED ? LockEvents.contendedAcquire() : null;
             Node h = tail;
-            final Node nextNode = new Node();
+            final Node nextNode = recycle ? Node.recycled() : new Node();
 
-            if (h != null || (h = bottomSet(nextNode)) != null) {
-                b_point:
-                do {
-                    do {
-                        if (NEXT.compareAndSet(h, null, nextNode)) {
-                            TAIL.compareAndSet(this, h, nextNode);
-                            while (nextNode.parked) {
-                                LockSupport.park();
-                            }
-                            break b_point;
-                        }
-                        h = tail;
-                    } while (h != null);
-                    h = bottomSet(nextNode);
-                } while (h != null);
+            if (enqueue(h, nextNode)) {
+                if (event != null) event.position = position(nextNode);
+                int i = 0;
+                while (nextNode.parked) {
+                    if (LockStats.ENABLED && i == WaitPolicy.PARK) stats.parked();
+                    i = WaitPolicy.park(queued, i, this);
+                }
             }
 
             // ------ set busy
 
+            final LockEvents.HeadSpin spin = LockEvents.ENABLED ? LockEvents.headSpin() : null;
+            int i = 0;
             while (!FAST_PATH.compareAndSet(this, false, true)) { // strong barrier
-                Thread.onSpinWait();
+                i = headIdle(i, HEAD_PARK_NANOS);
             }
-
+            if (LockEvents.ENABLED) headAcquired(spin);
 
             // -------- poll
 
-            Node first = top;
-            final Node next = first.next;
-            first.next = Node.removed;
-            if (next == null) {
-                if (TAIL.compareAndSet(this, first, null)) { // top will only be replaced sequentially,
-                    // UNLESS when being set to null, since new pushes occur asynchronously to this polling.
-                    TOP.compareAndSet(this, first, null);
-                } else {
-                    Node trueNext = first.next;
-                    top = trueNext;
-                    if (trueNext.parked) {
-                        trueNext.parked = false;
-                        LockSupport.unpark(trueNext.current);
+            poll(top);
+
+            if (LockStats.ENABLED) stats.acquired(since);
+            if (LockEvents.ENABLED) committed(event, true);
+
+            // ------- end
+
+        } else if (LockStats.ENABLED) stats.fastPath();
+    }
+
+    private static final int
+            ACQUIRED = 0,
+            TIMED_OUT = 1,
+            INTERRUPTED = 2;
+
+    /**
+     * A parked node abandons the queue by winning the {@link #PARKED} flag before its predecessor does,
+     * leaving the node linked so that the next {@link #poll(Node)} skips it.
+     * <p> If the node was already awakened, it is the new {@link #top}, and since the {@link #top} is only ever polled by its owner,
+     * it can poll itself without acquiring {@link #FAST_PATH}, handing its turn to the next node.
+     * <p> Queued nodes idle on {@link #queued} as in {@link #acquire()}, checking the interruption and the deadline between steps,
+     * and once the policy asks to park, the park is bounded by the deadline.
+     * */
+    private int acquire(boolean timed, long nanos) {
+        final long deadline = timed ? System.nanoTime() + nanos : 0L;
+        final long since = LockStats.ENABLED ? stats.queued() : 0L;
+        final LockEvents.ContendedAcquire event = LockEvents.ENABLED ? LockEvents.contendedAcquire() : null;
+        Node h = tail;
+        final Node nextNode = new Node(); // abandoned nodes outlive their owner's attempt, so they are never recycled.
+        int cause = ACQUIRED;
+
+        if (enqueue(h, nextNode)) {
+            if (event != null) event.position = position(nextNode);
+            int i = 0;
+            while (nextNode.parked) {
+                if (Thread.interrupted()) cause = INTERRUPTED;
+                else if (timed && (nanos = deadline - System.nanoTime()) <= 0L) cause = TIMED_OUT;
+                else {
+                    if (i != WaitPolicy.PARK) i = queued.idle(i);
+                    else {
+                        if (LockStats.ENABLED) stats.parked();
+                        if (timed) LockSupport.parkNanos(this, nanos);
+                        else LockSupport.park(this);
                     }
+                    continue;
                 }
-            } else {
-                top = next;
-                if (next.parked) {
-                    next.parked = false;
-                    LockSupport.unpark(next.current);
+                if (PARKED.compareAndSet(nextNode, true, false)) {
+                    if (LockStats.ENABLED) stats.abandoned(since);
+                    if (LockEvents.ENABLED) committed(event, false);
+                    return cause;
+                }
+                break; // awakened before abandoning.
+            }
+        }
+
+        final LockEvents.HeadSpin spin = LockEvents.ENABLED ? LockEvents.headSpin() : null;
+        for (int i = 0; cause == ACQUIRED;) {
+            if (FAST_PATH.compareAndSet(this, false, true)) {
+                if (LockEvents.ENABLED) headAcquired(spin);
+                poll(top);
+                if (LockStats.ENABLED) stats.acquired(since);
+                if (LockEvents.ENABLED) committed(event, true);
+                return ACQUIRED;
+            }
+            if (Thread.interrupted()) cause = INTERRUPTED;
+            else if (timed && (nanos = deadline - System.nanoTime()) <= 0L) cause = TIMED_OUT;
+            else i = headIdle(i, timed ? nanos : HEAD_PARK_NANOS);
+        }
+        poll(nextNode);
+        if (LockStats.ENABLED) stats.abandoned(since);
+        if (LockEvents.ENABLED) committed(event, false);
+        return cause;
+    }
+
+    /**
+     * @param event null if no recording ran when the acquisition began.
+     * */
+    private void committed(LockEvents.ContendedAcquire event, boolean acquired) {
+        if (event == null) return;
+        event.end();
+        if (event.shouldCommit()) {
+            event.lock(this);
+            event.acquired = acquired;
+            event.commit();
+        }
+    }
+
+    /**
+     * Ends the {@link LockEvents.HeadSpin}, if any, and reports the hand-off from the release stamped in {@link #releasedAt}, if any.
+     * */
+    private void headAcquired(LockEvents.HeadSpin spin) {
+        if (spin != null) {
+            spin.end();
+            if (spin.shouldCommit()) {
+                spin.lock(this);
+                spin.commit();
+            }
+        }
+        if (LockEvents.recording) {
+            LockEvents.handOff(this, releasedAt);
+            releasedAt = 0L;
+        }
+    }
+
+    /**
+     * Waits at most {@code nanos} for the lock, abandoning the queue on timeout, so that no work is performed after its deadline.
+     * @return true if acquired, false if timed out.
+     * @throws InterruptedException if interrupted while waiting, abandoning the queue.
+     * */
+    @Override
+    public boolean tryAcquire(long nanos) throws InterruptedException {
+        if (Thread.interrupted()) throw new InterruptedException();
+        if (FAST_PATH.compareAndSet(this, false, true)) {
+            if (LockStats.ENABLED) stats.fastPath();
+            return true;
+        }
+        if (nanos <= 0L) return false;
+        int res = acquire(true, nanos);
+        if (res == INTERRUPTED) throw new InterruptedException();
+        return res == ACQUIRED;
+    }
+
+    /**
+     * @throws InterruptedException if interrupted while waiting, abandoning the queue.
+     * */
+    @Override
+    public void acquireInterruptibly() throws InterruptedException {
+        if (Thread.interrupted()) throw new InterruptedException();
+        if (FAST_PATH.compareAndSet(this, false, true)) {
+            if (LockStats.ENABLED) stats.fastPath();
+        } else if (acquire(false, 0L) == INTERRUPTED) throw new InterruptedException();
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        if (FAST_PATH.compareAndSet(this, false, true)) {
+            if (LockStats.ENABLED) stats.fastPath();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * A single {@code setRelease}, followed by an opaque load of {@link #parkedHead}, which is only ever set when the HEAD parks.
+     * <p> The hand-off stamp is folded away unless {@link LockEvents#ENABLED}.
+     * */
+    @Override
+    public void release() {
+        if (LockStats.ENABLED) stats.released();
+        if (LockEvents.ENABLED && LockEvents.recording && tail != null) releasedAt = System.nanoTime();
+        FAST_PATH.setRelease(this, false);
+        final Object parked;
+        if ((parked = PARKED_HEAD.getOpaque(this)) != null) {
+            if (parked instanceof Thread) {
+                if (LockStats.ENABLED) stats.unparked();
+                LockSupport.unpark((Thread) parked);
+            }
+            else if (PARKED_HEAD.compareAndSet(this, parked, null)) asyncHead((AsyncNode) parked);
+        }
+    }
+
+    /**
+     * The release of a lock acquired via {@link #acquireAsync()}, same as {@link #release()}, and just as unguarded: it must be released once.
+     * */
+    public final class Permit implements AutoCloseable {
+        private Permit() {}
+
+        public void release() { UnfairMCS.this.release(); }
+
+        @Override
+        public void close() { UnfairMCS.this.release(); }
+    }
+
+    private final Permit permit = new Permit();
+
+    /**
+     * Same as {@link #acquireAsync(Executor)}, completing the future on the releasing Thread.
+     * */
+    public CompletableFuture<Permit> acquireAsync() { return acquireAsync(null); }
+
+    /**
+     * Acquires without blocking, queueing the returned future instead of the current Thread.
+     * <p> The future completes once the lock is acquired on its behalf, either on the Thread releasing the lock,
+     * (or, if the release missed it, on the Thread of a {@link #HEAD_PARK_NANOS} timer, which is a {@link java.util.concurrent.ForkJoinPool#commonPool()} Thread),
+     * or on {@code executor} if given. So, without an {@code executor}, completions (and their synchronous dependents) may run on the common pool.
+     * Completions that release synchronously are trampolined, so that a chain of them does not grow the releasing Thread's stack.
+     * <p> Cancelling or completing the future from the outside (e.g. {@link CompletableFuture#orTimeout(long, TimeUnit)}) abandons the queue,
+     * unless its turn already arrived, in which case it fails, see {@link AsyncFuture}.
+     * If {@code executor} rejects the completion, the lock is released and the future completes with the {@link RejectedExecutionException}.
+     * @param executor runs the completion, null for the releasing Thread.
+     * @return a future completed with the {@link Permit} to release.
+     * */
+    public CompletableFuture<Permit> acquireAsync(Executor executor) {
+        if (FAST_PATH.compareAndSet(this, false, true)) {
+            if (LockStats.ENABLED) stats.fastPath();
+            return CompletableFuture.completedFuture(permit);
+        }
+        final AsyncNode node = new AsyncNode(executor);
+        if (!enqueue(tail, node)) {
+            // the top, no one will poll it.
+            if (PARKED.compareAndSet(node, true, false)) asyncHead(node);
+            else poll(node); // cancelled already (and counted as abandoned).
+        }
+        return node.future;
+    }
+
+    /**
+     * An {@link AsyncNode} that became the {@link #top}, on whichever Thread made it so.
+     * <p> It either acquires the fast-path right away, or publishes itself in {@link #parkedHead} for {@link #release()} to claim,
+     * re-checking {@link #busy} afterwards, and claiming itself back if the lock was released in between.
+     * Since {@link #release()} may miss the publication (see {@link #headIdle(int, long)}), a timer claims it back after {@link #HEAD_PARK_NANOS},
+     * at most one per node at a time ({@link AsyncNode#timer}), cleared before its claim, so that a publication it misses schedules the next one.
+     * <p> Every claim is a CAS of {@link #parkedHead}, so that only one Thread ever drives the node.
+     * */
+    private void asyncHead(AsyncNode node) {
+        for (;;) {
+            if (FAST_PATH.compareAndSet(this, false, true)) {
+                poll(node);
+                if (LockStats.ENABLED) stats.acquired(node.since);
+                complete(node);
+                return;
+            }
+            parkedHead = node;
+            if (busy) {
+                if (!node.timer) {
+                    node.timer = true;
+                    CompletableFuture.delayedExecutor(HEAD_PARK_NANOS, TimeUnit.NANOSECONDS).execute(
+                            () -> {
+                                node.timer = false;
+                                if (PARKED_HEAD.compareAndSet(this, node, null)) asyncHead(node);
+                            }
+                    );
                 }
+                return;
             }
+            if (!PARKED_HEAD.compareAndSet(this, node, null)) return; // claimed by a release.
+        }
+    }
 
+    private static final class Trampoline {
+        final ArrayDeque<Runnable> pending = new ArrayDeque<>();
+        boolean running;
+    }
 
-//            final Node next = (Node) NEXT.compareAndExchange(first, first.next, Node.removed);
-//            if (next == null) {
-//                // remove BOTTOM first
-//                if (TAIL.compareAndSet(this, first, null)) { // top will only be replaced sequentially,
-//                    // UNLESS when being set to null, since new pushes occur asynchronously to this polling.
-//                    TOP.compareAndSet(this, first, null);
-//                }
-//                else {
-//                    Node trueNext = first.next;
-//                    top = trueNext;
-//
-//                    if (PARKED.compareAndSet(trueNext, true, false)) {
-//                        LockSupport.unpark(trueNext.current);
-//                    }
-//                }
-//            }
-//            else {
-//                top = next;
-//                if (PARKED.compareAndSet(next, true, false)) {
-//                    LockSupport.unpark(next.current);
-//                }
-//            }
+    private static final ThreadLocal<Trampoline> trampoline = ThreadLocal.withInitial(Trampoline::new);
 
-            // ------- end
+    /**
+     * Hands the acquired lock to the node's future, releasing it back if the future cannot take it.
+     * */
+    private void complete(AsyncNode node) {
+        if (node.executor != null) {
+            try {
+                node.executor.execute(() -> grant(node));
+            } catch (RejectedExecutionException e) {
+                release();
+                node.future.fail(e);
+            }
+            return;
+        }
+        final Trampoline t = trampoline.get();
+        t.pending.add(() -> grant(node));
+        if (t.running) return;
+        t.running = true;
+        try {
+            Runnable r;
+            while ((r = t.pending.poll()) != null) r.run();
+        } finally {
+            t.running = false;
+        }
+    }
+
+    private void grant(AsyncNode node) {
+        if (!node.future.grant()) release();
+    }
+
+    /**
+     * @return true if any Thread is queued (the HEAD included), a snapshot that may be stale by the time it returns.
+     * <p> Called by the holder, it tells whether the lock would be handed to a waiter, as opposed to a barging newcomer, see {@link CohortMCS}.
+     * */
+    public boolean hasQueuedThreads() { return tail != null; }
 
+    /**
+     * @return a new {@link ConditionObject} bound to this lock.
+     * */
+    @Override
+    public Condition newCondition() { return new ConditionObject(); }
+
+    /**
+     * Waiters park on their own list, and are spliced onto the lock queue by {@link #signal()},
+     * so that a signalled Thread is only awakened once it reaches the HEAD of the queue, instead of waking up just to block again on the lock.
+     * If the splice makes it the {@link #top} (empty queue) the signaller awakens it straight away.
+     * <p> As with the lock itself, ownership is not tracked: every method must only be called while holding the lock.
+     * */
+    public final class ConditionObject implements Condition {
+        private ConditionNode first, last; // guarded by the lock
+
+        private ConditionNode addWaiter() {
+            final ConditionNode node = new ConditionNode();
+            if (last == null) first = node;
+            else last.nextWaiter = node;
+            return last = node;
+        }
+
+        /**
+         * @return false if the waiter already abandoned the condition.
+         * */
+        private boolean transfer(ConditionNode node) {
+            if (!WAITING.compareAndSet(node, true, false)) return false;
+            if (!enqueue(tail, node)) {
+                PARKED.setRelease(node, false);
+                LockSupport.unpark(node.current);
+            }
+            return true;
+        }
+
+        /**
+         * Removes the waiters that abandoned the condition, called by them once the lock is re-acquired.
+         * */
+        private void unlinkAbandoned() {
+            ConditionNode prev = null, node = first;
+            while (node != null) {
+                final ConditionNode next = node.nextWaiter;
+                if (!node.waiting) {
+                    node.nextWaiter = null;
+                    if (prev == null) first = next;
+                    else prev.nextWaiter = next;
+                    if (next == null) last = prev;
+                } else prev = node;
+                node = next;
+            }
+        }
+
+        /**
+         * Releases the lock, waits until signalled (or abandons the condition), then re-acquires the lock as any queued node would.
+         * <p> If both the signal and the interruption arrive, the signal wins and the interruption is re-asserted.
+         * */
+        private int await(boolean interruptible, boolean timed, long nanos) {
+            final ConditionNode node = addWaiter();
+            final long deadline = timed ? System.nanoTime() + nanos : 0L;
+            release();
+            boolean interrupted = false;
+            int cause = ACQUIRED;
+            while (node.parked) {
+                if (cause == ACQUIRED && node.waiting) {
+                    if (Thread.interrupted()) {
+                        interrupted = true;
+                        if (interruptible) cause = INTERRUPTED;
+                    }
+                    if (cause == ACQUIRED && timed && (nanos = deadline - System.nanoTime()) <= 0L) cause = TIMED_OUT;
+                    if (cause != ACQUIRED) {
+                        if (WAITING.compareAndSet(node, true, false)) {
+                            if (!enqueue(tail, node)) break; // the top, no one will awaken it.
+                        } else cause = ACQUIRED; // signalled first.
+                        continue;
+                    }
+                    if (timed) LockSupport.parkNanos(this, nanos);
+                    else LockSupport.park(this);
+                } else {
+                    LockSupport.park(this);
+                    if (Thread.interrupted()) interrupted = true;
+                }
+            }
+
+            // ------ set busy
+
+            int i = 0;
+            while (!FAST_PATH.compareAndSet(UnfairMCS.this, false, true)) {
+                i = headIdle(i, HEAD_PARK_NANOS);
+            }
+
+            // -------- poll
+
+            poll(top);
+
+            if (LockStats.ENABLED) stats.reowned();
+            if (cause != ACQUIRED) unlinkAbandoned();
+            if (interrupted && cause != INTERRUPTED) Thread.currentThread().interrupt();
+            return cause;
+        }
+
+        @Override
+        public void await() throws InterruptedException {
+            if (Thread.interrupted()) throw new InterruptedException();
+            if (await(true, false, 0L) == INTERRUPTED) throw new InterruptedException();
+        }
+
+        @Override
+        public void awaitUninterruptibly() { await(false, false, 0L); }
+
+        @Override
+        public long awaitNanos(long nanosTimeout) throws InterruptedException {
+            if (Thread.interrupted()) throw new InterruptedException();
+            final long deadline = System.nanoTime() + nanosTimeout;
+            if (await(true, true, nanosTimeout) == INTERRUPTED) throw new InterruptedException();
+            return deadline - System.nanoTime();
+        }
+
+        @Override
+        public boolean await(long time, TimeUnit unit) throws InterruptedException {
+            if (Thread.interrupted()) throw new InterruptedException();
+            final int cause = await(true, true, unit.toNanos(time));
+            if (cause == INTERRUPTED) throw new InterruptedException();
+            return cause == ACQUIRED;
+        }
+
+        @Override
+        public boolean awaitUntil(Date deadline) throws InterruptedException {
+            return await(deadline.getTime() - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void signal() {
+            ConditionNode node;
+            while ((node = first) != null) {
+                if ((first = node.nextWaiter) == null) last = null;
+                node.nextWaiter = null;
+                if (transfer(node)) return;
+            }
+        }
+
+        @Override
+        public void signalAll() {
+            ConditionNode node = first;
+            first = last = null;
+            while (node != null) {
+                final ConditionNode next = node.nextWaiter;
+                node.nextWaiter = null;
+                transfer(node);
+                node = next;
+            }
         }
     }
 
-    public void release() { FAST_PATH.setRelease(this, false); }
+    @Override
+    public LockStats stats() { return stats; }
+
+    @Override
+    public boolean isFair() { return false; }
+
+    @Override
+    public boolean isParking() { return true; }
+
+    @Override
+    public boolean supportsTimeout() { return true; }
 }
@@ -0,0 +1,273 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Read-write version of {@link UnfairMCS}, sharing its Node queue and its "semi-awake" HEAD.
+ * <p> The fast-path flag becomes a {@link #STATE} word, holding the {@link #WRITER} bit and the count of readers (in {@link #READER} units):
+ * <ul>
+ *     <li>Writers keep barging through the fast-path (0 to {@link #WRITER}) whenever the lock is free, as {@link UnfairMCS} does.</li>
+ *     <li>Readers only take the fast-path while the queue is empty, so that a queued writer is never starved by a stream of incoming readers.</li>
+ * </ul>
+ * Consecutive readers in the queue are admitted as one batch:
+ * a reader HEAD polls itself as soon as it joins the readers in {@link #STATE}, awakening the next node, which (if also a reader) joins immediately, and so on,
+ * cascading through the batch until a writer becomes the HEAD, which then waits for the last reader of the batch to leave (see {@link #HEAD_SPINS}).
+ * <p> Neither side is reentrant, and a reader can not upgrade to writer.
+ * <pre>{@code
+ * final UnfairRWMCS rw = new UnfairRWMCS();
+ * final Synchronizer read = rw.readLock(), write = rw.writeLock();
+ * }</pre>
+ * */
+public class UnfairRWMCS {
+    private static class Node {
+
+        final Thread current = Thread.currentThread();
+        final boolean shared;
+        volatile boolean parked = true;
+
+        volatile Node next;
+        static final Node removed = new Node(false);
+
+        Node(boolean shared) { this.shared = shared; }
+
+        @Override
+        public String toString() {
+            return "Node{" +
+                    ", Thread=" + current +
+                    ", shared=" + shared +
+                    ", next=" + (next == null ? "[null]" : next.hashCode()) +
+                    "}@".concat(Integer.toString(hashCode()));
+        }
+    }
+
+    static final VarHandle NEXT;
+    static final VarHandle PARKED;
+
+    static final VarHandle TOP;
+    static final VarHandle TAIL;
+    static final VarHandle STATE;
+
+    static {
+        try {
+            PARKED = MethodHandles.lookup().findVarHandle(
+                    Node.class, "parked",
+                    boolean.class);
+            NEXT = MethodHandles.lookup().findVarHandle(
+                    Node.class, "next", Node.class
+            );
+            TOP = MethodHandles.lookup().findVarHandle(
+                    UnfairRWMCS.class, "top", Node.class
+            );
+            TAIL = MethodHandles.lookup().findVarHandle(
+                    UnfairRWMCS.class, "tail", Node.class
+            );
+            STATE = MethodHandles.lookup().findVarHandle(
+                    UnfairRWMCS.class, "state",
+                    int.class);
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    static final int
+            WRITER = 1,
+            READER = 2;
+
+    /**
+     * The HEAD spins for a while, then yields,
+     * since under read-mostly loads it is usually awakened while a batch is still reading, and would otherwise burn the time-slice of the readers it is waiting for.
+     * */
+    static final int HEAD_SPINS = 1 << 6;
+
+    Node top = null;
+    volatile Node tail = null;
+
+    volatile int state = 0;
+
+    /**
+     * Idling of the nodes behind the HEAD, awakened by their predecessor, and of the HEAD itself, while excluded by {@link #STATE}.
+     * */
+    final WaitPolicy queued, head;
+
+    public UnfairRWMCS() { this(WaitPolicy.PARKING, WaitPolicy.spinThenYield(HEAD_SPINS)); }
+
+    /**
+     * @param head since nothing awakens the HEAD, a {@link WaitPolicy#PARK} is bounded by {@link WaitPolicy#PARK_NANOS}.
+     * */
+    public UnfairRWMCS(WaitPolicy queued, WaitPolicy head) {
+        this.queued = queued;
+        this.head = head;
+    }
+
+    private final Synchronizer read = new Synchronizer() {
+        @Override
+        public void acquire() { acquireRead(); }
+        @Override
+        public void release() { releaseRead(); }
+        @Override
+        public boolean tryAcquire() { return tryAcquireRead(); }
+        @Override
+        public boolean isFair() { return false; }
+        @Override
+        public boolean isParking() { return true; }
+        @Override
+        public String toString() { return "UnfairRWMCS.read@".concat(Integer.toString(UnfairRWMCS.this.hashCode())); }
+    };
+
+    private final Synchronizer write = new Synchronizer() {
+        @Override
+        public void acquire() { acquireWrite(); }
+        @Override
+        public void release() { releaseWrite(); }
+        @Override
+        public boolean tryAcquire() { return tryAcquireWrite(); }
+        @Override
+        public boolean isFair() { return false; }
+        @Override
+        public boolean isParking() { return true; }
+        @Override
+        public String toString() { return "UnfairRWMCS.write@".concat(Integer.toString(UnfairRWMCS.this.hashCode())); }
+    };
+
+    /**
+     * @return the shared side of this lock, see {@link #acquireRead()}.
+     * */
+    public Synchronizer readLock() { return read; }
+
+    /**
+     * @return the exclusive side of this lock, see {@link #acquireWrite()}.
+     * */
+    public Synchronizer writeLock() { return write; }
+
+    private Node bottomSet(Node nextNode) {
+        Node wit;
+        if ((wit = (Node) TAIL.compareAndExchange(this, null, nextNode)) == null) {
+            top = nextNode;
+            return null;
+        } else return wit;
+    }
+
+    /**
+     * @return true if the node was linked behind a predecessor and needs to wait for it, false if it became the {@link #top}.
+     * */
+    private boolean enqueue(Node h, Node nextNode) {
+        if (h != null || (h = bottomSet(nextNode)) != null) {
+            do {
+                do {
+                    if (NEXT.compareAndSet(h, null, nextNode)) {
+                        TAIL.compareAndSet(this, h, nextNode);
+                        return true;
+                    }
+                    h = tail;
+                } while (h != null);
+                h = bottomSet(nextNode);
+            } while (h != null);
+        }
+        return false;
+    }
+
+    /**
+     * Removes the {@code first} node, and awakens the next one.
+     * */
+    private void poll(Node first) {
+        Node next = first.next;
+        if (next == null
+                && (next = (Node) NEXT.compareAndExchange(first, null, Node.removed)) == null) {
+            // `removed` denies any further pushes on `first`, so the TAIL can only be `first` at this point.
+            if (TAIL.compareAndSet(this, first, null)) {
+                TOP.compareAndSet(this, first, null);
+            }
+            return;
+        }
+        top = next;
+        PARKED.setRelease(next, false);
+        LockSupport.unpark(next.current);
+    }
+
+    private boolean share() {
+        int s;
+        while (((s = state) & WRITER) == 0) {
+            if (STATE.compareAndSet(this, s, s + READER)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Parks until the node becomes the {@link #top}.
+     * */
+    private void await(Node nextNode) {
+        if (enqueue(tail, nextNode)) {
+            int i = 0;
+            while (nextNode.parked) {
+                i = WaitPolicy.park(queued, i, this);
+            }
+        }
+    }
+
+    /**
+     * Barges through the fast-path ONLY while the queue is empty, otherwise joins the queue,
+     * where it is admitted along with the rest of the readers consecutive to it.
+     * */
+    public void acquireRead() {
+        if (tail != null || !share()) {
+            final Node nextNode = new Node(true);
+            await(nextNode);
+
+            // ------ join the readers, or wait for the writer to leave.
+
+            int i = 0;
+            while (!share()) {
+                i = WaitPolicy.parkNanos(head, i, this);
+            }
+
+            // -------- poll, if the next is a reader, it joins immediately.
+
+            poll(top);
+        }
+    }
+
+    /**
+     * Only succeeds if no writer holds the lock, and no one is queued.
+     * */
+    public boolean tryAcquireRead() { return tail == null && share(); }
+
+    public void releaseRead() { STATE.getAndAddRelease(this, -READER); }
+
+    public void acquireWrite() {
+        if (!STATE.compareAndSet(this, 0, WRITER)) {
+            final Node nextNode = new Node(false);
+            await(nextNode);
+
+            // ------ wait for the writer, or the last reader of the batch, to leave.
+
+            int i = 0;
+            while (!STATE.compareAndSet(this, 0, WRITER)) { // strong barrier
+                i = WaitPolicy.parkNanos(head, i, this);
+            }
+
+            // -------- poll
+
+            poll(top);
+        }
+    }
+
+    public boolean tryAcquireWrite() { return STATE.compareAndSet(this, 0, WRITER); }
+
+    public void releaseWrite() { STATE.setRelease(this, 0); }
+
+    /**
+     * @return the number of Threads currently holding the read side.
+     * */
+    public int getReadCount() { return state >>> 1; }
+
+    public boolean isWriteLocked() { return (state & WRITER) != 0; }
+
+    @Override
+    public String toString() {
+        final int s = state;
+        return "UnfairRWMCS{" +
+                "readers=" + (s >>> 1) +
+                ", writer=" + ((s & WRITER) != 0) +
+                "}@".concat(Integer.toString(hashCode()));
+    }
+}
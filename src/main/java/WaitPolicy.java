@@ -0,0 +1,122 @@
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How a Thread idles while waiting at a given site of a synchronizer (queued node, HEAD, far/near ticket...), trading CPU burn against wake-up latency.
+ * <p> A policy only performs the idle step ({@link #idle(int)}), while parking stays owned by the synchronizer,
+ * which knows whether the site is awakened by the releasing process ({@link #park(WaitPolicy, int, Object)}),
+ * or has no one to awaken it, and so must park with a bound ({@link #parkNanos(WaitPolicy, int, Object)}).
+ * <p> Every synchronizer keeps its policies in final fields, so that each call-site stays monomorphic for any given deployment,
+ * letting the JIT inline the step as if it were hard-coded.
+ * <pre>{@code
+ * final Synchronizer lock = new UnfairMCS(false, WaitPolicy.spinThenPark(64), WaitPolicy.SPIN);
+ * }</pre>
+ * */
+@FunctionalInterface
+public interface WaitPolicy {
+
+    /**
+     * Sentinel returned by {@link #idle(int)} when the caller should park, instead of idling further.
+     * */
+    int PARK = -1;
+
+    /**
+     * The bound of parks at sites that nobody awakens, see {@link #parkNanos(WaitPolicy, int, Object)}.
+     * */
+    long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /**
+     * Performs a single idle step.
+     * @param iteration the number of steps already performed at this site (starting at 0).
+     * @return the next iteration, or {@link #PARK}.
+     * */
+    int idle(int iteration);
+
+    /** Busy-waits via {@link Thread#onSpinWait()} forever.*/
+    WaitPolicy SPIN = iteration -> {
+        Thread.onSpinWait();
+        return 1;
+    };
+
+    /** Yields forever.*/
+    WaitPolicy YIELD = iteration -> {
+        Thread.yield();
+        return 1;
+    };
+
+    /** Parks straight away.*/
+    WaitPolicy PARKING = iteration -> PARK;
+
+    /**
+     * Spins {@code spins} times, then parks.
+     * */
+    static WaitPolicy spinThenPark(int spins) {
+        return iteration -> {
+            if (iteration < spins) {
+                Thread.onSpinWait();
+                return iteration + 1;
+            }
+            return PARK;
+        };
+    }
+
+    /**
+     * Yields {@code yields} times, then parks.
+     * */
+    static WaitPolicy yieldThenPark(int yields) {
+        return iteration -> {
+            if (iteration < yields) {
+                Thread.yield();
+                return iteration + 1;
+            }
+            return PARK;
+        };
+    }
+
+    /**
+     * Spins {@code spins} times, then yields forever.
+     * */
+    static WaitPolicy spinThenYield(int spins) {
+        return iteration -> {
+            if (iteration < spins) {
+                Thread.onSpinWait();
+                return iteration + 1;
+            }
+            Thread.yield();
+            return iteration;
+        };
+    }
+
+    /**
+     * Sleeps via {@link LockSupport#parkNanos(long)}, doubling from {@code minNanos} up to {@code maxNanos}, never asking to park indefinitely.
+     * <p> An unpark at a wakeable site cuts the current sleep short.
+     * */
+    static WaitPolicy backoff(long minNanos, long maxNanos) {
+        if (minNanos <= 0 || maxNanos < minNanos) throw new IllegalArgumentException("Expected 0 < minNanos <= maxNanos");
+        final int maxShift = 63 - Long.numberOfLeadingZeros(maxNanos / minNanos);
+        return iteration -> {
+            LockSupport.parkNanos(Math.min(maxNanos, minNanos << iteration));
+            return iteration < maxShift ? iteration + 1 : iteration;
+        };
+    }
+
+    /**
+     * Idle step for sites awakened by the releasing process via {@link LockSupport#unpark(Thread)}.
+     * @return the next iteration.
+     * */
+    static int park(WaitPolicy policy, int iteration, Object blocker) {
+        if (iteration != PARK) return policy.idle(iteration);
+        LockSupport.park(blocker);
+        return PARK;
+    }
+
+    /**
+     * Idle step for sites no one awakens, where a {@link #PARK} is bounded by {@link #PARK_NANOS}.
+     * @return the next iteration.
+     * */
+    static int parkNanos(WaitPolicy policy, int iteration, Object blocker) {
+        if (iteration != PARK) return policy.idle(iteration);
+        LockSupport.parkNanos(blocker, PARK_NANOS);
+        return PARK;
+    }
+}
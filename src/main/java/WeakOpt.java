@@ -1,8 +1,20 @@
+import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.IntUnaryOperator;
+import java.util.function.LongUnaryOperator;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 /**
  * Solves LL/SC's spurious failure by retrying on `expected == vh.getOpaque()`, and returning:
@@ -25,6 +37,8 @@ import java.util.function.Supplier;
  *         }
  * }</pre>
  * This retry loop is removed on Total Store Ordered architectures, using their analogous strong versions instead.
+ * <p> It is also removed on weak processors whose CAS is a single instruction (ARMv8.1 LSE, RISC-V Zacas), probed on Linux from {@code /proc/cpuinfo},
+ * see {@link #setCpuInfo(String)}, {@code -Dweakopt.weak=true|false} overrides every inference.
  * <pre>{@code
  * CAS = VarHandle.compareAndSet
  * XCHG = VarHandle.compareAndExchange
@@ -101,12 +115,59 @@ public class WeakOpt {
 
     /**
      * Will only apply if none of the processors match the current architecture.
+     * <p> To force either model on any architecture, use {@code -Dweakopt.weak=true|false} instead.
      * */
     public static synchronized void setWeak(boolean weak) {
         alreadyInitializedExcpetion();
         WeakOpt.weak = weak;
     }
 
+    static String cpuInfo = System.getProperty("weakopt.cpuinfo", "/proc/cpuinfo");
+
+    /**
+     * CPU features providing a single-instruction CAS, on which the weak retry loop is pure overhead:
+     * ARMv8.1 LSE ({@code atomics}) and RISC-V Zacas ({@code zacas}).
+     * */
+    private static String[] strongFeatures = new String[]{"atomics", "zacas"};
+
+    /**
+     * The file the CPU features of weak processors are probed from, in Linux' {@code /proc/cpuinfo} format (the default),
+     * e.g. a fixture of another machine class, see {@code src/test/resources/cpuinfo}.
+     * Also settable with {@code -Dweakopt.cpuinfo=<file>}.
+     * */
+    public static synchronized void setCpuInfo(String file) {
+        alreadyInitializedExcpetion();
+        WeakOpt.cpuInfo = file;
+    }
+
+    /**
+     * Reads the {@code Features} (ARM), {@code flags} (x86) and {@code isa} (RISC-V, underscore-separated) lines of {@link #cpuInfo}.
+     * <p> Outside Linux there is no such file, and no other probe, so weak processors keep the weak loops,
+     * even those with a single-instruction CAS (e.g. macOS on Apple Silicon, which has LSE), use {@code -Dweakopt.weak=false} there.
+     * @return the first of {@link #strongFeatures} found, null if none, or if the file is missing (silently) or unreadable (logged).
+     * */
+    static String strongFeature() {
+        final Path file = Paths.get(cpuInfo);
+        if (!Files.exists(file)) return null;
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final int colon = line.indexOf(':');
+                if (colon < 0) continue;
+                final String key = line.substring(0, colon).trim().toLowerCase();
+                if (!key.equals("features") && !key.equals("flags") && !key.equals("isa")) continue;
+                for (String feature : line.substring(colon + 1).trim().toLowerCase().split("[\\s_]+")) {
+                    for (String strong : strongFeatures) {
+                        if (feature.equals(strong)) return strong;
+                    }
+                }
+            }
+        } catch (IOException | SecurityException e) {
+            System.out.println(TAG.concat(" - CPU features not readable at [" + cpuInfo + "] (" + e + ")"));
+        }
+        return null;
+    }
+
     static class cas_ {
         boolean cas(VarHandle vh, Object context, Object exp, Object set) { return false;}
     }
@@ -119,30 +180,121 @@ public class WeakOpt {
         int xchg(AtomicInteger ai, int exp, int set) { return 0;}
     }
 
+    static class int_idx_cmpxchg {
+        boolean cas(VarHandle vh, Object context, int index, int exp, int set) { return false; }
+        int xchg(VarHandle vh, Object context, int index, int exp, int set) { return 0; }
+    }
+
+    static class long_idx_cmpxchg {
+        boolean cas(VarHandle vh, Object context, int index, long exp, long set) { return false; }
+        long xchg(VarHandle vh, Object context, int index, long exp, long set) { return 0L; }
+    }
+
+    static class ref_idx_cmpxchg {
+        boolean cas(VarHandle vh, Object context, int index, Object exp, Object set) { return false; }
+        Object xchg(VarHandle vh, Object context, int index, Object exp, Object set) { return null; }
+    }
+
+    static class long_xchg {
+        long xchg(AtomicLong al, long exp, long set) { return 0L; }
+    }
+
+    static class bool_xchg {
+        boolean xchg(AtomicBoolean ab, boolean exp, boolean set) { return false; }
+    }
+
+    static class ref_xchg {
+        Object xchg(AtomicReference<Object> ar, Object exp, Object set) { return null; }
+    }
+
+    static class bool_cmpxchg {
+        boolean cas(VarHandle vh, Object context, boolean exp, boolean set) { return false; }
+        boolean xchg(VarHandle vh, Object context, boolean exp, boolean set) { return false; }
+    }
+
+    static class int_cmpxchg {
+        boolean cas(VarHandle vh, Object context, int exp, int set) { return false; }
+        int xchg(VarHandle vh, Object context, int exp, int set) { return 0; }
+    }
+
+    static class long_cmpxchg {
+        boolean cas(VarHandle vh, Object context, long exp, long set) { return false; }
+        long xchg(VarHandle vh, Object context, long exp, long set) { return 0L; }
+    }
+
+    static class ref_cmpxchg {
+        boolean cas(VarHandle vh, Object context, Object exp, Object set) { return false; }
+        Object xchg(VarHandle vh, Object context, Object exp, Object set) { return null; }
+    }
+
     public enum FENCE {
         ACQ(
                 () -> Arch.AcqCAS.ref,
-                () -> Arch.AcqXCHG.ref
+                () -> Arch.AcqXCHG.ref,
+                () -> Arch.BOOLAcq.ref,
+                () -> Arch.INTAcq.ref,
+                () -> Arch.LONGAcq.ref,
+                () -> Arch.REFAcq.ref,
+                () -> Arch.IDX_INTAcq.ref,
+                () -> Arch.IDX_LONGAcq.ref,
+                () -> Arch.IDX_REFAcq.ref
         ),
         REL(
                 () -> Arch.RelCAS.ref,
-                () -> Arch.RelXCHG.ref
+                () -> Arch.RelXCHG.ref,
+                () -> Arch.BOOLRel.ref,
+                () -> Arch.INTRel.ref,
+                () -> Arch.LONGRel.ref,
+                () -> Arch.REFRel.ref,
+                () -> Arch.IDX_INTRel.ref,
+                () -> Arch.IDX_LONGRel.ref,
+                () -> Arch.IDX_REFRel.ref
         ),
         ACQ_REL(
                 () -> Arch.SeqConstCAS.ref,
-                () -> Arch.SeqConstXCHG.ref
+                () -> Arch.SeqConstXCHG.ref,
+                () -> Arch.BOOLSeqConst.ref,
+                () -> Arch.INTSeqConst.ref,
+                () -> Arch.LONGSeqConst.ref,
+                () -> Arch.REFSeqConst.ref,
+                () -> Arch.IDX_INTSeqConst.ref,
+                () -> Arch.IDX_LONGSeqConst.ref,
+                () -> Arch.IDX_REFSeqConst.ref
         ),
         PLAIN(
                 () -> Arch.PlainCAS.ref,
-                () -> Arch.PlainXCHG.ref
+                () -> Arch.PlainXCHG.ref,
+                () -> Arch.BOOLPlain.ref,
+                () -> Arch.INTPlain.ref,
+                () -> Arch.LONGPlain.ref,
+                () -> Arch.REFPlain.ref,
+                () -> Arch.IDX_INTPlain.ref,
+                () -> Arch.IDX_LONGPlain.ref,
+                () -> Arch.IDX_REFPlain.ref
         )
         ;
         final Supplier<cas_> cas;
         final Supplier<xchg_> cax;
+        final Supplier<bool_cmpxchg> bool;
+        final Supplier<int_cmpxchg> i;
+        final Supplier<long_cmpxchg> l;
+        final Supplier<ref_cmpxchg> ref;
+        final Supplier<int_idx_cmpxchg> idx_i;
+        final Supplier<long_idx_cmpxchg> idx_l;
+        final Supplier<ref_idx_cmpxchg> idx_ref;
 
-        FENCE(Supplier<cas_> cas, Supplier<xchg_> cax) {
+        FENCE(Supplier<cas_> cas, Supplier<xchg_> cax,
+              Supplier<bool_cmpxchg> bool, Supplier<int_cmpxchg> i, Supplier<long_cmpxchg> l, Supplier<ref_cmpxchg> ref,
+              Supplier<int_idx_cmpxchg> idx_i, Supplier<long_idx_cmpxchg> idx_l, Supplier<ref_idx_cmpxchg> idx_ref) {
             this.cas = cas;
             this.cax = cax;
+            this.bool = bool;
+            this.i = i;
+            this.l = l;
+            this.ref = ref;
+            this.idx_i = idx_i;
+            this.idx_l = idx_l;
+            this.idx_ref = idx_ref;
         }
     }
 
@@ -156,6 +308,11 @@ public class WeakOpt {
         static final boolean isWeak = isWeak();
         static boolean isWeak() {
             inferred = true;
+            final String forced = System.getProperty("weakopt.weak");
+            if (forced != null) {
+                System.out.println(TAG.concat(" - Forced by -Dweakopt.weak = " + forced));
+                return Boolean.parseBoolean(forced);
+            }
             String arch = System.getProperty(path).toLowerCase();
             System.out.println(TAG.concat(" - Architecture = " + arch
                     + "\n    at path = " + path
@@ -167,6 +324,12 @@ public class WeakOpt {
             for (String procs:processors
             ) {
                 if (arch.contains(procs.toLowerCase())) {
+                    final String feature = strongFeature();
+                    if (feature != null) {
+                        System.out.println(TAG.concat(" - Weak model found [" + procs + "], with a single-instruction CAS [" + feature
+                                + "] at [" + cpuInfo + "], weak CASes not applied."));
+                        return false;
+                    }
                     System.out.println(TAG.concat("Weak model found [" + procs + "] = true"));
                     return true;
                 }
@@ -384,19 +547,33 @@ public class WeakOpt {
                     };
         }
 
-        //--------------- AtomciInteger ---------------//
+        //--------------- Primitive-specialized ---------------//
 
-        enum INTAcqXCHG {;
-            static final int_xchg ref = isWeak ?
-                    new int_xchg() {
+        enum BOOLAcq {;
+            static final bool_cmpxchg ref = isWeak ?
+                    new bool_cmpxchg() {
                         @Override
-                        public int xchg(AtomicInteger ai, int exp, int set) {
-                            if (!ai.weakCompareAndSetAcquire(exp, set)) {
-                                if (exp == (exp = ai.getOpaque())) {
+                        public boolean cas(VarHandle vh1, Object context, boolean exp, boolean set) {
+                            if (!vh1.weakCompareAndSetAcquire(context, exp, set)) {
+                                if (exp == (boolean) vh1.getOpaque(context)) {
                                     do {
-                                        if (ai.weakCompareAndSetAcquire(exp, set)) return exp;
+                                        if (vh1.weakCompareAndSetAcquire(context, exp, set)) return true;
                                     } while (
-                                            exp == (exp = ai.getOpaque())
+                                            exp == (boolean) vh1.getOpaque(context)
+                                    );
+                                }
+                                return false;
+                            } else return true;
+                        }
+
+                        @Override
+                        public boolean xchg(VarHandle vh1, Object context, boolean exp, boolean set) {
+                            if (!vh1.weakCompareAndSetAcquire(context, exp, set)) {
+                                if (exp == (exp = (boolean) vh1.getOpaque(context))) {
+                                    do {
+                                        if (vh1.weakCompareAndSetAcquire(context, exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = (boolean) vh1.getOpaque(context))
                                     );
                                 }
                             }
@@ -404,24 +581,43 @@ public class WeakOpt {
                         }
                     }
                     :
-                    new int_xchg() {
+                    new bool_cmpxchg() {
                         @Override
-                        public int xchg(AtomicInteger atomicInteger, int expectedValue, int newValue) {
-                            return atomicInteger.compareAndExchangeAcquire(expectedValue, newValue);
+                        public boolean cas(VarHandle vh1, Object context, boolean exp, boolean set) {
+                            return (boolean) vh1.compareAndExchangeAcquire(context, exp, set) == exp;
+                        }
+
+                        @Override
+                        public boolean xchg(VarHandle vh1, Object context, boolean exp, boolean set) {
+                            return (boolean) vh1.compareAndExchangeAcquire(context, exp, set);
                         }
                     };
         }
-        enum INTAcqRelXCHG {;
-            static final int_xchg ref = isWeak ?
-                    new int_xchg() {
+        enum BOOLRel {;
+            static final bool_cmpxchg ref = isWeak ?
+                    new bool_cmpxchg() {
                         @Override
-                        public int xchg(AtomicInteger ai, int exp, int set) {
-                            if (!ai.weakCompareAndSetAcquire(exp, set)) {
-                                if (exp == (exp = ai.getOpaque())) {
+                        public boolean cas(VarHandle vh1, Object context, boolean exp, boolean set) {
+                            if (!vh1.weakCompareAndSetRelease(context, exp, set)) {
+                                if (exp == (boolean) vh1.getOpaque(context)) {
                                     do {
-                                        if (ai.weakCompareAndSetAcquire(exp, set)) return exp;
+                                        if (vh1.weakCompareAndSetRelease(context, exp, set)) return true;
                                     } while (
-                                            exp == (exp = ai.getOpaque())
+                                            exp == (boolean) vh1.getOpaque(context)
+                                    );
+                                }
+                                return false;
+                            } else return true;
+                        }
+
+                        @Override
+                        public boolean xchg(VarHandle vh1, Object context, boolean exp, boolean set) {
+                            if (!vh1.weakCompareAndSetRelease(context, exp, set)) {
+                                if (exp == (exp = (boolean) vh1.getOpaque(context))) {
+                                    do {
+                                        if (vh1.weakCompareAndSetRelease(context, exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = (boolean) vh1.getOpaque(context))
                                     );
                                 }
                             }
@@ -429,24 +625,43 @@ public class WeakOpt {
                         }
                     }
                     :
-                    new int_xchg() {
+                    new bool_cmpxchg() {
                         @Override
-                        public int xchg(AtomicInteger atomicInteger, int expectedValue, int newValue) {
-                            return atomicInteger.compareAndExchangeAcquire(expectedValue, newValue);
+                        public boolean cas(VarHandle vh1, Object context, boolean exp, boolean set) {
+                            return (boolean) vh1.compareAndExchangeRelease(context, exp, set) == exp;
+                        }
+
+                        @Override
+                        public boolean xchg(VarHandle vh1, Object context, boolean exp, boolean set) {
+                            return (boolean) vh1.compareAndExchangeRelease(context, exp, set);
                         }
                     };
         }
-        enum INTRelXCHG {;
-            static final int_xchg ref = isWeak ?
-                    new int_xchg() {
+        enum BOOLSeqConst {;
+            static final bool_cmpxchg ref = isWeak ?
+                    new bool_cmpxchg() {
                         @Override
-                        public int xchg(AtomicInteger ai, int exp, int set) {
-                            if (!ai.weakCompareAndSetRelease(exp, set)) {
-                                if (exp == (exp = ai.getOpaque())) {
+                        public boolean cas(VarHandle vh1, Object context, boolean exp, boolean set) {
+                            if (!vh1.weakCompareAndSet(context, exp, set)) {
+                                if (exp == (boolean) vh1.getOpaque(context)) {
                                     do {
-                                        if (ai.weakCompareAndSetRelease(exp, set)) return exp;
+                                        if (vh1.weakCompareAndSet(context, exp, set)) return true;
                                     } while (
-                                            exp == (exp = ai.getOpaque())
+                                            exp == (boolean) vh1.getOpaque(context)
+                                    );
+                                }
+                                return false;
+                            } else return true;
+                        }
+
+                        @Override
+                        public boolean xchg(VarHandle vh1, Object context, boolean exp, boolean set) {
+                            if (!vh1.weakCompareAndSet(context, exp, set)) {
+                                if (exp == (exp = (boolean) vh1.getOpaque(context))) {
+                                    do {
+                                        if (vh1.weakCompareAndSet(context, exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = (boolean) vh1.getOpaque(context))
                                     );
                                 }
                             }
@@ -454,24 +669,43 @@ public class WeakOpt {
                         }
                     }
                     :
-                    new int_xchg() {
+                    new bool_cmpxchg() {
                         @Override
-                        public int xchg(AtomicInteger atomicInteger, int expectedValue, int newValue) {
-                            return atomicInteger.compareAndExchangeRelease(expectedValue, newValue);
+                        public boolean cas(VarHandle vh1, Object context, boolean exp, boolean set) {
+                            return vh1.compareAndSet(context, exp, set);
+                        }
+
+                        @Override
+                        public boolean xchg(VarHandle vh1, Object context, boolean exp, boolean set) {
+                            return (boolean) vh1.compareAndExchange(context, exp, set);
                         }
                     };
         }
-        enum INTPlainXCHG {;
-            static final int_xchg ref = isWeak ?
-                    new int_xchg() {
+        enum BOOLPlain {;
+            static final bool_cmpxchg ref = isWeak ?
+                    new bool_cmpxchg() {
                         @Override
-                        public int xchg(AtomicInteger ai, int exp, int set) {
-                            if (!ai.weakCompareAndSetPlain(exp, set)) {
-                                if (exp == (exp = ai.getOpaque())) {
+                        public boolean cas(VarHandle vh1, Object context, boolean exp, boolean set) {
+                            if (!vh1.weakCompareAndSetPlain(context, exp, set)) {
+                                if (exp == (boolean) vh1.getOpaque(context)) {
                                     do {
-                                        if (ai.weakCompareAndSetPlain(exp, set)) return exp;
+                                        if (vh1.weakCompareAndSetPlain(context, exp, set)) return true;
                                     } while (
-                                            exp == (exp = ai.getOpaque())
+                                            exp == (boolean) vh1.getOpaque(context)
+                                    );
+                                }
+                                return false;
+                            } else return true;
+                        }
+
+                        @Override
+                        public boolean xchg(VarHandle vh1, Object context, boolean exp, boolean set) {
+                            if (!vh1.weakCompareAndSetPlain(context, exp, set)) {
+                                if (exp == (exp = (boolean) vh1.getOpaque(context))) {
+                                    do {
+                                        if (vh1.weakCompareAndSetPlain(context, exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = (boolean) vh1.getOpaque(context))
                                     );
                                 }
                             }
@@ -479,61 +713,1647 @@ public class WeakOpt {
                         }
                     }
                     :
-                    new int_xchg() {
+                    new bool_cmpxchg() {
                         @Override
-                        public int xchg(AtomicInteger atomicInteger, int expectedValue, int newValue) {
-                            return atomicInteger.compareAndExchangeAcquire(expectedValue, newValue);
+                        public boolean cas(VarHandle vh1, Object context, boolean exp, boolean set) {
+                            return (boolean) vh1.compareAndExchangeAcquire(context, exp, set) == exp;
+                        }
+
+                        @Override
+                        public boolean xchg(VarHandle vh1, Object context, boolean exp, boolean set) {
+                            return (boolean) vh1.compareAndExchangeAcquire(context, exp, set);
                         }
                     };
         }
-    }
+        enum INTAcq {;
+            static final int_cmpxchg ref = isWeak ?
+                    new int_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int exp, int set) {
+                            if (!vh1.weakCompareAndSetAcquire(context, exp, set)) {
+                                if (exp == (int) vh1.getOpaque(context)) {
+                                    do {
+                                        if (vh1.weakCompareAndSetAcquire(context, exp, set)) return true;
+                                    } while (
+                                            exp == (int) vh1.getOpaque(context)
+                                    );
+                                }
+                                return false;
+                            } else return true;
+                        }
 
-    // Moves the lazy allocation of the field OUTSIDE the constructor...
-    // Improving performance by:
-    // Allowing free speculation of function/enum value BEFORE object creation.
-    // In return the processor is allowed to speculate the creation and run of Threads before this object has finished creating.
-    // NO OOTA(Out of thin air) values are possible on real hardware since speculation occurs privately in the Thread cache
-    // and will never commit UNTIL confirmation returns true.
-    // Leaving the enum to lazy-init inside the constructor.. creates a strong dependence (fences between fences) so no speculation is allowed in the middle of the process between enum initialization and `WeakOptimizer` creation.
-    public static CAS getCAS(VarHandle vh, FENCE fence) { return new CAS(vh, fence.cas.get()); }
-    public static CAX getCAX(VarHandle vh, FENCE fence) { return new CAX(vh, fence.cax.get()); }
-    public static CMPXCHG getCMPXCHG(VarHandle vh, FENCE fence) { return new CMPXCHG(vh,fence.cas.get() , fence.cax.get()); }
+                        @Override
+                        public int xchg(VarHandle vh1, Object context, int exp, int set) {
+                            if (!vh1.weakCompareAndSetAcquire(context, exp, set)) {
+                                if (exp == (exp = (int) vh1.getOpaque(context))) {
+                                    do {
+                                        if (vh1.weakCompareAndSetAcquire(context, exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = (int) vh1.getOpaque(context))
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new int_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int exp, int set) {
+                            return (int) vh1.compareAndExchangeAcquire(context, exp, set) == exp;
+                        }
 
-    // VarHandle inheritance has shown better performance than direct referencing during C2 compilation.
-    // Explanation: Each loading of `vh` refers to the same field (method) on all children usages... hence "hitting" the execution-counter with more hits.
-    // Fostering a faster memory layout optimization and faster inlining.
-    // The shared scope... allows the optimization to "trickle-down" to all children via OSR using the machine code stored on the underlying `shared_runtime`.
-    public static final class CAS extends WeakOpt {
-        private final cas_ c;
-        private CAS(VarHandle vh, cas_ c) {
-            super(vh);
-            this.c = c;
+                        @Override
+                        public int xchg(VarHandle vh1, Object context, int exp, int set) {
+                            return (int) vh1.compareAndExchangeAcquire(context, exp, set);
+                        }
+                    };
         }
-        public boolean cas(Object t, Object e, Object s) { return c.cas(vh, t, e, s); }
-    }
+        enum INTRel {;
+            static final int_cmpxchg ref = isWeak ?
+                    new int_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int exp, int set) {
+                            if (!vh1.weakCompareAndSetRelease(context, exp, set)) {
+                                if (exp == (int) vh1.getOpaque(context)) {
+                                    do {
+                                        if (vh1.weakCompareAndSetRelease(context, exp, set)) return true;
+                                    } while (
+                                            exp == (int) vh1.getOpaque(context)
+                                    );
+                                }
+                                return false;
+                            } else return true;
+                        }
 
-    public static final class CAX extends WeakOpt {
-        private final xchg_ x;
-        private CAX(VarHandle vh, xchg_ x) {
-            super(vh);
-            this.x = x;
-        }
-        public Object xchg(Object t, Object e, Object s) { return x.xchg(vh, t, e, s); }
-    }
+                        @Override
+                        public int xchg(VarHandle vh1, Object context, int exp, int set) {
+                            if (!vh1.weakCompareAndSetRelease(context, exp, set)) {
+                                if (exp == (exp = (int) vh1.getOpaque(context))) {
+                                    do {
+                                        if (vh1.weakCompareAndSetRelease(context, exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = (int) vh1.getOpaque(context))
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new int_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int exp, int set) {
+                            return (int) vh1.compareAndExchangeRelease(context, exp, set) == exp;
+                        }
 
-    public static final class CMPXCHG extends WeakOpt {
-        private final cas_ c;
-        private final xchg_ x;
-        private CMPXCHG(VarHandle vh,
-                       cas_ c, xchg_ x
-            ) {
-            super(vh);
-            this.c = c;
-            this.x = x;
+                        @Override
+                        public int xchg(VarHandle vh1, Object context, int exp, int set) {
+                            return (int) vh1.compareAndExchangeRelease(context, exp, set);
+                        }
+                    };
         }
-        public boolean cas(Object t, Object e, Object s) { return c.cas(vh, t, e, s); }
-        public Object xchg(Object t, Object e, Object s) { return x.xchg(vh, t, e, s); }
-    }
+        enum INTSeqConst {;
+            static final int_cmpxchg ref = isWeak ?
+                    new int_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int exp, int set) {
+                            if (!vh1.weakCompareAndSet(context, exp, set)) {
+                                if (exp == (int) vh1.getOpaque(context)) {
+                                    do {
+                                        if (vh1.weakCompareAndSet(context, exp, set)) return true;
+                                    } while (
+                                            exp == (int) vh1.getOpaque(context)
+                                    );
+                                }
+                                return false;
+                            } else return true;
+                        }
+
+                        @Override
+                        public int xchg(VarHandle vh1, Object context, int exp, int set) {
+                            if (!vh1.weakCompareAndSet(context, exp, set)) {
+                                if (exp == (exp = (int) vh1.getOpaque(context))) {
+                                    do {
+                                        if (vh1.weakCompareAndSet(context, exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = (int) vh1.getOpaque(context))
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new int_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int exp, int set) {
+                            return vh1.compareAndSet(context, exp, set);
+                        }
+
+                        @Override
+                        public int xchg(VarHandle vh1, Object context, int exp, int set) {
+                            return (int) vh1.compareAndExchange(context, exp, set);
+                        }
+                    };
+        }
+        enum INTPlain {;
+            static final int_cmpxchg ref = isWeak ?
+                    new int_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int exp, int set) {
+                            if (!vh1.weakCompareAndSetPlain(context, exp, set)) {
+                                if (exp == (int) vh1.getOpaque(context)) {
+                                    do {
+                                        if (vh1.weakCompareAndSetPlain(context, exp, set)) return true;
+                                    } while (
+                                            exp == (int) vh1.getOpaque(context)
+                                    );
+                                }
+                                return false;
+                            } else return true;
+                        }
+
+                        @Override
+                        public int xchg(VarHandle vh1, Object context, int exp, int set) {
+                            if (!vh1.weakCompareAndSetPlain(context, exp, set)) {
+                                if (exp == (exp = (int) vh1.getOpaque(context))) {
+                                    do {
+                                        if (vh1.weakCompareAndSetPlain(context, exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = (int) vh1.getOpaque(context))
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new int_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int exp, int set) {
+                            return (int) vh1.compareAndExchangeAcquire(context, exp, set) == exp;
+                        }
+
+                        @Override
+                        public int xchg(VarHandle vh1, Object context, int exp, int set) {
+                            return (int) vh1.compareAndExchangeAcquire(context, exp, set);
+                        }
+                    };
+        }
+        enum LONGAcq {;
+            static final long_cmpxchg ref = isWeak ?
+                    new long_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, long exp, long set) {
+                            if (!vh1.weakCompareAndSetAcquire(context, exp, set)) {
+                                if (exp == (long) vh1.getOpaque(context)) {
+                                    do {
+                                        if (vh1.weakCompareAndSetAcquire(context, exp, set)) return true;
+                                    } while (
+                                            exp == (long) vh1.getOpaque(context)
+                                    );
+                                }
+                                return false;
+                            } else return true;
+                        }
+
+                        @Override
+                        public long xchg(VarHandle vh1, Object context, long exp, long set) {
+                            if (!vh1.weakCompareAndSetAcquire(context, exp, set)) {
+                                if (exp == (exp = (long) vh1.getOpaque(context))) {
+                                    do {
+                                        if (vh1.weakCompareAndSetAcquire(context, exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = (long) vh1.getOpaque(context))
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new long_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, long exp, long set) {
+                            return (long) vh1.compareAndExchangeAcquire(context, exp, set) == exp;
+                        }
+
+                        @Override
+                        public long xchg(VarHandle vh1, Object context, long exp, long set) {
+                            return (long) vh1.compareAndExchangeAcquire(context, exp, set);
+                        }
+                    };
+        }
+        enum LONGRel {;
+            static final long_cmpxchg ref = isWeak ?
+                    new long_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, long exp, long set) {
+                            if (!vh1.weakCompareAndSetRelease(context, exp, set)) {
+                                if (exp == (long) vh1.getOpaque(context)) {
+                                    do {
+                                        if (vh1.weakCompareAndSetRelease(context, exp, set)) return true;
+                                    } while (
+                                            exp == (long) vh1.getOpaque(context)
+                                    );
+                                }
+                                return false;
+                            } else return true;
+                        }
+
+                        @Override
+                        public long xchg(VarHandle vh1, Object context, long exp, long set) {
+                            if (!vh1.weakCompareAndSetRelease(context, exp, set)) {
+                                if (exp == (exp = (long) vh1.getOpaque(context))) {
+                                    do {
+                                        if (vh1.weakCompareAndSetRelease(context, exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = (long) vh1.getOpaque(context))
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new long_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, long exp, long set) {
+                            return (long) vh1.compareAndExchangeRelease(context, exp, set) == exp;
+                        }
+
+                        @Override
+                        public long xchg(VarHandle vh1, Object context, long exp, long set) {
+                            return (long) vh1.compareAndExchangeRelease(context, exp, set);
+                        }
+                    };
+        }
+        enum LONGSeqConst {;
+            static final long_cmpxchg ref = isWeak ?
+                    new long_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, long exp, long set) {
+                            if (!vh1.weakCompareAndSet(context, exp, set)) {
+                                if (exp == (long) vh1.getOpaque(context)) {
+                                    do {
+                                        if (vh1.weakCompareAndSet(context, exp, set)) return true;
+                                    } while (
+                                            exp == (long) vh1.getOpaque(context)
+                                    );
+                                }
+                                return false;
+                            } else return true;
+                        }
+
+                        @Override
+                        public long xchg(VarHandle vh1, Object context, long exp, long set) {
+                            if (!vh1.weakCompareAndSet(context, exp, set)) {
+                                if (exp == (exp = (long) vh1.getOpaque(context))) {
+                                    do {
+                                        if (vh1.weakCompareAndSet(context, exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = (long) vh1.getOpaque(context))
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new long_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, long exp, long set) {
+                            return vh1.compareAndSet(context, exp, set);
+                        }
+
+                        @Override
+                        public long xchg(VarHandle vh1, Object context, long exp, long set) {
+                            return (long) vh1.compareAndExchange(context, exp, set);
+                        }
+                    };
+        }
+        enum LONGPlain {;
+            static final long_cmpxchg ref = isWeak ?
+                    new long_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, long exp, long set) {
+                            if (!vh1.weakCompareAndSetPlain(context, exp, set)) {
+                                if (exp == (long) vh1.getOpaque(context)) {
+                                    do {
+                                        if (vh1.weakCompareAndSetPlain(context, exp, set)) return true;
+                                    } while (
+                                            exp == (long) vh1.getOpaque(context)
+                                    );
+                                }
+                                return false;
+                            } else return true;
+                        }
+
+                        @Override
+                        public long xchg(VarHandle vh1, Object context, long exp, long set) {
+                            if (!vh1.weakCompareAndSetPlain(context, exp, set)) {
+                                if (exp == (exp = (long) vh1.getOpaque(context))) {
+                                    do {
+                                        if (vh1.weakCompareAndSetPlain(context, exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = (long) vh1.getOpaque(context))
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new long_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, long exp, long set) {
+                            return (long) vh1.compareAndExchangeAcquire(context, exp, set) == exp;
+                        }
+
+                        @Override
+                        public long xchg(VarHandle vh1, Object context, long exp, long set) {
+                            return (long) vh1.compareAndExchangeAcquire(context, exp, set);
+                        }
+                    };
+        }
+        enum REFAcq {;
+            static final ref_cmpxchg ref = isWeak ?
+                    new ref_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, Object exp, Object set) {
+                            if (!vh1.weakCompareAndSetAcquire(context, exp, set)) {
+                                if (exp == vh1.getOpaque(context)) {
+                                    do {
+                                        if (vh1.weakCompareAndSetAcquire(context, exp, set)) return true;
+                                    } while (
+                                            exp == vh1.getOpaque(context)
+                                    );
+                                }
+                                return false;
+                            } else return true;
+                        }
+
+                        @Override
+                        public Object xchg(VarHandle vh1, Object context, Object exp, Object set) {
+                            if (!vh1.weakCompareAndSetAcquire(context, exp, set)) {
+                                if (exp == (exp = vh1.getOpaque(context))) {
+                                    do {
+                                        if (vh1.weakCompareAndSetAcquire(context, exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = vh1.getOpaque(context))
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new ref_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, Object exp, Object set) {
+                            return vh1.compareAndExchangeAcquire(context, exp, set) == exp;
+                        }
+
+                        @Override
+                        public Object xchg(VarHandle vh1, Object context, Object exp, Object set) {
+                            return vh1.compareAndExchangeAcquire(context, exp, set);
+                        }
+                    };
+        }
+        enum REFRel {;
+            static final ref_cmpxchg ref = isWeak ?
+                    new ref_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, Object exp, Object set) {
+                            if (!vh1.weakCompareAndSetRelease(context, exp, set)) {
+                                if (exp == vh1.getOpaque(context)) {
+                                    do {
+                                        if (vh1.weakCompareAndSetRelease(context, exp, set)) return true;
+                                    } while (
+                                            exp == vh1.getOpaque(context)
+                                    );
+                                }
+                                return false;
+                            } else return true;
+                        }
+
+                        @Override
+                        public Object xchg(VarHandle vh1, Object context, Object exp, Object set) {
+                            if (!vh1.weakCompareAndSetRelease(context, exp, set)) {
+                                if (exp == (exp = vh1.getOpaque(context))) {
+                                    do {
+                                        if (vh1.weakCompareAndSetRelease(context, exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = vh1.getOpaque(context))
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new ref_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, Object exp, Object set) {
+                            return vh1.compareAndExchangeRelease(context, exp, set) == exp;
+                        }
+
+                        @Override
+                        public Object xchg(VarHandle vh1, Object context, Object exp, Object set) {
+                            return vh1.compareAndExchangeRelease(context, exp, set);
+                        }
+                    };
+        }
+        enum REFSeqConst {;
+            static final ref_cmpxchg ref = isWeak ?
+                    new ref_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, Object exp, Object set) {
+                            if (!vh1.weakCompareAndSet(context, exp, set)) {
+                                if (exp == vh1.getOpaque(context)) {
+                                    do {
+                                        if (vh1.weakCompareAndSet(context, exp, set)) return true;
+                                    } while (
+                                            exp == vh1.getOpaque(context)
+                                    );
+                                }
+                                return false;
+                            } else return true;
+                        }
+
+                        @Override
+                        public Object xchg(VarHandle vh1, Object context, Object exp, Object set) {
+                            if (!vh1.weakCompareAndSet(context, exp, set)) {
+                                if (exp == (exp = vh1.getOpaque(context))) {
+                                    do {
+                                        if (vh1.weakCompareAndSet(context, exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = vh1.getOpaque(context))
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new ref_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, Object exp, Object set) {
+                            return vh1.compareAndSet(context, exp, set);
+                        }
+
+                        @Override
+                        public Object xchg(VarHandle vh1, Object context, Object exp, Object set) {
+                            return vh1.compareAndExchange(context, exp, set);
+                        }
+                    };
+        }
+        enum REFPlain {;
+            static final ref_cmpxchg ref = isWeak ?
+                    new ref_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, Object exp, Object set) {
+                            if (!vh1.weakCompareAndSetPlain(context, exp, set)) {
+                                if (exp == vh1.getOpaque(context)) {
+                                    do {
+                                        if (vh1.weakCompareAndSetPlain(context, exp, set)) return true;
+                                    } while (
+                                            exp == vh1.getOpaque(context)
+                                    );
+                                }
+                                return false;
+                            } else return true;
+                        }
+
+                        @Override
+                        public Object xchg(VarHandle vh1, Object context, Object exp, Object set) {
+                            if (!vh1.weakCompareAndSetPlain(context, exp, set)) {
+                                if (exp == (exp = vh1.getOpaque(context))) {
+                                    do {
+                                        if (vh1.weakCompareAndSetPlain(context, exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = vh1.getOpaque(context))
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new ref_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, Object exp, Object set) {
+                            return vh1.compareAndExchangeAcquire(context, exp, set) == exp;
+                        }
+
+                        @Override
+                        public Object xchg(VarHandle vh1, Object context, Object exp, Object set) {
+                            return vh1.compareAndExchangeAcquire(context, exp, set);
+                        }
+                    };
+        }
+
+        //--------------- Indexed (array elements, ByteBuffer views) ---------------//
+
+        enum IDX_INTAcq {;
+            static final int_idx_cmpxchg ref = isWeak ?
+                    new int_idx_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int index, int exp, int set) {
+                            if (!vh1.weakCompareAndSetAcquire(context, index, exp, set)) {
+                                if (exp == (int) vh1.getOpaque(context, index)) {
+                                    do {
+                                        if (vh1.weakCompareAndSetAcquire(context, index, exp, set)) return true;
+                                    } while (
+                                            exp == (int) vh1.getOpaque(context, index)
+                                    );
+                                }
+                                return false;
+                            } else return true;
+                        }
+
+                        @Override
+                        public int xchg(VarHandle vh1, Object context, int index, int exp, int set) {
+                            if (!vh1.weakCompareAndSetAcquire(context, index, exp, set)) {
+                                if (exp == (exp = (int) vh1.getOpaque(context, index))) {
+                                    do {
+                                        if (vh1.weakCompareAndSetAcquire(context, index, exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = (int) vh1.getOpaque(context, index))
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new int_idx_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int index, int exp, int set) {
+                            return (int) vh1.compareAndExchangeAcquire(context, index, exp, set) == exp;
+                        }
+
+                        @Override
+                        public int xchg(VarHandle vh1, Object context, int index, int exp, int set) {
+                            return (int) vh1.compareAndExchangeAcquire(context, index, exp, set);
+                        }
+                    };
+        }
+        enum IDX_INTRel {;
+            static final int_idx_cmpxchg ref = isWeak ?
+                    new int_idx_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int index, int exp, int set) {
+                            if (!vh1.weakCompareAndSetRelease(context, index, exp, set)) {
+                                if (exp == (int) vh1.getOpaque(context, index)) {
+                                    do {
+                                        if (vh1.weakCompareAndSetRelease(context, index, exp, set)) return true;
+                                    } while (
+                                            exp == (int) vh1.getOpaque(context, index)
+                                    );
+                                }
+                                return false;
+                            } else return true;
+                        }
+
+                        @Override
+                        public int xchg(VarHandle vh1, Object context, int index, int exp, int set) {
+                            if (!vh1.weakCompareAndSetRelease(context, index, exp, set)) {
+                                if (exp == (exp = (int) vh1.getOpaque(context, index))) {
+                                    do {
+                                        if (vh1.weakCompareAndSetRelease(context, index, exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = (int) vh1.getOpaque(context, index))
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new int_idx_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int index, int exp, int set) {
+                            return (int) vh1.compareAndExchangeRelease(context, index, exp, set) == exp;
+                        }
+
+                        @Override
+                        public int xchg(VarHandle vh1, Object context, int index, int exp, int set) {
+                            return (int) vh1.compareAndExchangeRelease(context, index, exp, set);
+                        }
+                    };
+        }
+        enum IDX_INTSeqConst {;
+            static final int_idx_cmpxchg ref = isWeak ?
+                    new int_idx_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int index, int exp, int set) {
+                            if (!vh1.weakCompareAndSet(context, index, exp, set)) {
+                                if (exp == (int) vh1.getOpaque(context, index)) {
+                                    do {
+                                        if (vh1.weakCompareAndSet(context, index, exp, set)) return true;
+                                    } while (
+                                            exp == (int) vh1.getOpaque(context, index)
+                                    );
+                                }
+                                return false;
+                            } else return true;
+                        }
+
+                        @Override
+                        public int xchg(VarHandle vh1, Object context, int index, int exp, int set) {
+                            if (!vh1.weakCompareAndSet(context, index, exp, set)) {
+                                if (exp == (exp = (int) vh1.getOpaque(context, index))) {
+                                    do {
+                                        if (vh1.weakCompareAndSet(context, index, exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = (int) vh1.getOpaque(context, index))
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new int_idx_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int index, int exp, int set) {
+                            return vh1.compareAndSet(context, index, exp, set);
+                        }
+
+                        @Override
+                        public int xchg(VarHandle vh1, Object context, int index, int exp, int set) {
+                            return (int) vh1.compareAndExchange(context, index, exp, set);
+                        }
+                    };
+        }
+        enum IDX_INTPlain {;
+            static final int_idx_cmpxchg ref = isWeak ?
+                    new int_idx_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int index, int exp, int set) {
+                            if (!vh1.weakCompareAndSetPlain(context, index, exp, set)) {
+                                if (exp == (int) vh1.getOpaque(context, index)) {
+                                    do {
+                                        if (vh1.weakCompareAndSetPlain(context, index, exp, set)) return true;
+                                    } while (
+                                            exp == (int) vh1.getOpaque(context, index)
+                                    );
+                                }
+                                return false;
+                            } else return true;
+                        }
+
+                        @Override
+                        public int xchg(VarHandle vh1, Object context, int index, int exp, int set) {
+                            if (!vh1.weakCompareAndSetPlain(context, index, exp, set)) {
+                                if (exp == (exp = (int) vh1.getOpaque(context, index))) {
+                                    do {
+                                        if (vh1.weakCompareAndSetPlain(context, index, exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = (int) vh1.getOpaque(context, index))
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new int_idx_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int index, int exp, int set) {
+                            return (int) vh1.compareAndExchangeAcquire(context, index, exp, set) == exp;
+                        }
+
+                        @Override
+                        public int xchg(VarHandle vh1, Object context, int index, int exp, int set) {
+                            return (int) vh1.compareAndExchangeAcquire(context, index, exp, set);
+                        }
+                    };
+        }
+        enum IDX_LONGAcq {;
+            static final long_idx_cmpxchg ref = isWeak ?
+                    new long_idx_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int index, long exp, long set) {
+                            if (!vh1.weakCompareAndSetAcquire(context, index, exp, set)) {
+                                if (exp == (long) vh1.getOpaque(context, index)) {
+                                    do {
+                                        if (vh1.weakCompareAndSetAcquire(context, index, exp, set)) return true;
+                                    } while (
+                                            exp == (long) vh1.getOpaque(context, index)
+                                    );
+                                }
+                                return false;
+                            } else return true;
+                        }
+
+                        @Override
+                        public long xchg(VarHandle vh1, Object context, int index, long exp, long set) {
+                            if (!vh1.weakCompareAndSetAcquire(context, index, exp, set)) {
+                                if (exp == (exp = (long) vh1.getOpaque(context, index))) {
+                                    do {
+                                        if (vh1.weakCompareAndSetAcquire(context, index, exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = (long) vh1.getOpaque(context, index))
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new long_idx_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int index, long exp, long set) {
+                            return (long) vh1.compareAndExchangeAcquire(context, index, exp, set) == exp;
+                        }
+
+                        @Override
+                        public long xchg(VarHandle vh1, Object context, int index, long exp, long set) {
+                            return (long) vh1.compareAndExchangeAcquire(context, index, exp, set);
+                        }
+                    };
+        }
+        enum IDX_LONGRel {;
+            static final long_idx_cmpxchg ref = isWeak ?
+                    new long_idx_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int index, long exp, long set) {
+                            if (!vh1.weakCompareAndSetRelease(context, index, exp, set)) {
+                                if (exp == (long) vh1.getOpaque(context, index)) {
+                                    do {
+                                        if (vh1.weakCompareAndSetRelease(context, index, exp, set)) return true;
+                                    } while (
+                                            exp == (long) vh1.getOpaque(context, index)
+                                    );
+                                }
+                                return false;
+                            } else return true;
+                        }
+
+                        @Override
+                        public long xchg(VarHandle vh1, Object context, int index, long exp, long set) {
+                            if (!vh1.weakCompareAndSetRelease(context, index, exp, set)) {
+                                if (exp == (exp = (long) vh1.getOpaque(context, index))) {
+                                    do {
+                                        if (vh1.weakCompareAndSetRelease(context, index, exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = (long) vh1.getOpaque(context, index))
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new long_idx_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int index, long exp, long set) {
+                            return (long) vh1.compareAndExchangeRelease(context, index, exp, set) == exp;
+                        }
+
+                        @Override
+                        public long xchg(VarHandle vh1, Object context, int index, long exp, long set) {
+                            return (long) vh1.compareAndExchangeRelease(context, index, exp, set);
+                        }
+                    };
+        }
+        enum IDX_LONGSeqConst {;
+            static final long_idx_cmpxchg ref = isWeak ?
+                    new long_idx_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int index, long exp, long set) {
+                            if (!vh1.weakCompareAndSet(context, index, exp, set)) {
+                                if (exp == (long) vh1.getOpaque(context, index)) {
+                                    do {
+                                        if (vh1.weakCompareAndSet(context, index, exp, set)) return true;
+                                    } while (
+                                            exp == (long) vh1.getOpaque(context, index)
+                                    );
+                                }
+                                return false;
+                            } else return true;
+                        }
+
+                        @Override
+                        public long xchg(VarHandle vh1, Object context, int index, long exp, long set) {
+                            if (!vh1.weakCompareAndSet(context, index, exp, set)) {
+                                if (exp == (exp = (long) vh1.getOpaque(context, index))) {
+                                    do {
+                                        if (vh1.weakCompareAndSet(context, index, exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = (long) vh1.getOpaque(context, index))
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new long_idx_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int index, long exp, long set) {
+                            return vh1.compareAndSet(context, index, exp, set);
+                        }
+
+                        @Override
+                        public long xchg(VarHandle vh1, Object context, int index, long exp, long set) {
+                            return (long) vh1.compareAndExchange(context, index, exp, set);
+                        }
+                    };
+        }
+        enum IDX_LONGPlain {;
+            static final long_idx_cmpxchg ref = isWeak ?
+                    new long_idx_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int index, long exp, long set) {
+                            if (!vh1.weakCompareAndSetPlain(context, index, exp, set)) {
+                                if (exp == (long) vh1.getOpaque(context, index)) {
+                                    do {
+                                        if (vh1.weakCompareAndSetPlain(context, index, exp, set)) return true;
+                                    } while (
+                                            exp == (long) vh1.getOpaque(context, index)
+                                    );
+                                }
+                                return false;
+                            } else return true;
+                        }
+
+                        @Override
+                        public long xchg(VarHandle vh1, Object context, int index, long exp, long set) {
+                            if (!vh1.weakCompareAndSetPlain(context, index, exp, set)) {
+                                if (exp == (exp = (long) vh1.getOpaque(context, index))) {
+                                    do {
+                                        if (vh1.weakCompareAndSetPlain(context, index, exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = (long) vh1.getOpaque(context, index))
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new long_idx_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int index, long exp, long set) {
+                            return (long) vh1.compareAndExchangeAcquire(context, index, exp, set) == exp;
+                        }
+
+                        @Override
+                        public long xchg(VarHandle vh1, Object context, int index, long exp, long set) {
+                            return (long) vh1.compareAndExchangeAcquire(context, index, exp, set);
+                        }
+                    };
+        }
+        enum IDX_REFAcq {;
+            static final ref_idx_cmpxchg ref = isWeak ?
+                    new ref_idx_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int index, Object exp, Object set) {
+                            if (!vh1.weakCompareAndSetAcquire(context, index, exp, set)) {
+                                if (exp == vh1.getOpaque(context, index)) {
+                                    do {
+                                        if (vh1.weakCompareAndSetAcquire(context, index, exp, set)) return true;
+                                    } while (
+                                            exp == vh1.getOpaque(context, index)
+                                    );
+                                }
+                                return false;
+                            } else return true;
+                        }
+
+                        @Override
+                        public Object xchg(VarHandle vh1, Object context, int index, Object exp, Object set) {
+                            if (!vh1.weakCompareAndSetAcquire(context, index, exp, set)) {
+                                if (exp == (exp = vh1.getOpaque(context, index))) {
+                                    do {
+                                        if (vh1.weakCompareAndSetAcquire(context, index, exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = vh1.getOpaque(context, index))
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new ref_idx_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int index, Object exp, Object set) {
+                            return vh1.compareAndExchangeAcquire(context, index, exp, set) == exp;
+                        }
+
+                        @Override
+                        public Object xchg(VarHandle vh1, Object context, int index, Object exp, Object set) {
+                            return vh1.compareAndExchangeAcquire(context, index, exp, set);
+                        }
+                    };
+        }
+        enum IDX_REFRel {;
+            static final ref_idx_cmpxchg ref = isWeak ?
+                    new ref_idx_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int index, Object exp, Object set) {
+                            if (!vh1.weakCompareAndSetRelease(context, index, exp, set)) {
+                                if (exp == vh1.getOpaque(context, index)) {
+                                    do {
+                                        if (vh1.weakCompareAndSetRelease(context, index, exp, set)) return true;
+                                    } while (
+                                            exp == vh1.getOpaque(context, index)
+                                    );
+                                }
+                                return false;
+                            } else return true;
+                        }
+
+                        @Override
+                        public Object xchg(VarHandle vh1, Object context, int index, Object exp, Object set) {
+                            if (!vh1.weakCompareAndSetRelease(context, index, exp, set)) {
+                                if (exp == (exp = vh1.getOpaque(context, index))) {
+                                    do {
+                                        if (vh1.weakCompareAndSetRelease(context, index, exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = vh1.getOpaque(context, index))
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new ref_idx_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int index, Object exp, Object set) {
+                            return vh1.compareAndExchangeRelease(context, index, exp, set) == exp;
+                        }
+
+                        @Override
+                        public Object xchg(VarHandle vh1, Object context, int index, Object exp, Object set) {
+                            return vh1.compareAndExchangeRelease(context, index, exp, set);
+                        }
+                    };
+        }
+        enum IDX_REFSeqConst {;
+            static final ref_idx_cmpxchg ref = isWeak ?
+                    new ref_idx_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int index, Object exp, Object set) {
+                            if (!vh1.weakCompareAndSet(context, index, exp, set)) {
+                                if (exp == vh1.getOpaque(context, index)) {
+                                    do {
+                                        if (vh1.weakCompareAndSet(context, index, exp, set)) return true;
+                                    } while (
+                                            exp == vh1.getOpaque(context, index)
+                                    );
+                                }
+                                return false;
+                            } else return true;
+                        }
+
+                        @Override
+                        public Object xchg(VarHandle vh1, Object context, int index, Object exp, Object set) {
+                            if (!vh1.weakCompareAndSet(context, index, exp, set)) {
+                                if (exp == (exp = vh1.getOpaque(context, index))) {
+                                    do {
+                                        if (vh1.weakCompareAndSet(context, index, exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = vh1.getOpaque(context, index))
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new ref_idx_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int index, Object exp, Object set) {
+                            return vh1.compareAndSet(context, index, exp, set);
+                        }
+
+                        @Override
+                        public Object xchg(VarHandle vh1, Object context, int index, Object exp, Object set) {
+                            return vh1.compareAndExchange(context, index, exp, set);
+                        }
+                    };
+        }
+        enum IDX_REFPlain {;
+            static final ref_idx_cmpxchg ref = isWeak ?
+                    new ref_idx_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int index, Object exp, Object set) {
+                            if (!vh1.weakCompareAndSetPlain(context, index, exp, set)) {
+                                if (exp == vh1.getOpaque(context, index)) {
+                                    do {
+                                        if (vh1.weakCompareAndSetPlain(context, index, exp, set)) return true;
+                                    } while (
+                                            exp == vh1.getOpaque(context, index)
+                                    );
+                                }
+                                return false;
+                            } else return true;
+                        }
+
+                        @Override
+                        public Object xchg(VarHandle vh1, Object context, int index, Object exp, Object set) {
+                            if (!vh1.weakCompareAndSetPlain(context, index, exp, set)) {
+                                if (exp == (exp = vh1.getOpaque(context, index))) {
+                                    do {
+                                        if (vh1.weakCompareAndSetPlain(context, index, exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = vh1.getOpaque(context, index))
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new ref_idx_cmpxchg() {
+                        @Override
+                        public boolean cas(VarHandle vh1, Object context, int index, Object exp, Object set) {
+                            return vh1.compareAndExchangeAcquire(context, index, exp, set) == exp;
+                        }
+
+                        @Override
+                        public Object xchg(VarHandle vh1, Object context, int index, Object exp, Object set) {
+                            return vh1.compareAndExchangeAcquire(context, index, exp, set);
+                        }
+                    };
+        }
+
+        //--------------- AtomciInteger ---------------//
+
+        enum INTAcqXCHG {;
+            static final int_xchg ref = isWeak ?
+                    new int_xchg() {
+                        @Override
+                        public int xchg(AtomicInteger ai, int exp, int set) {
+                            if (!ai.weakCompareAndSetAcquire(exp, set)) {
+                                if (exp == (exp = ai.getOpaque())) {
+                                    do {
+                                        if (ai.weakCompareAndSetAcquire(exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = ai.getOpaque())
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new int_xchg() {
+                        @Override
+                        public int xchg(AtomicInteger atomicInteger, int expectedValue, int newValue) {
+                            return atomicInteger.compareAndExchangeAcquire(expectedValue, newValue);
+                        }
+                    };
+        }
+        enum INTAcqRelXCHG {;
+            static final int_xchg ref = isWeak ?
+                    new int_xchg() {
+                        @Override
+                        public int xchg(AtomicInteger ai, int exp, int set) {
+                            if (!ai.weakCompareAndSetAcquire(exp, set)) {
+                                if (exp == (exp = ai.getOpaque())) {
+                                    do {
+                                        if (ai.weakCompareAndSetAcquire(exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = ai.getOpaque())
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new int_xchg() {
+                        @Override
+                        public int xchg(AtomicInteger atomicInteger, int expectedValue, int newValue) {
+                            return atomicInteger.compareAndExchangeAcquire(expectedValue, newValue);
+                        }
+                    };
+        }
+        enum INTRelXCHG {;
+            static final int_xchg ref = isWeak ?
+                    new int_xchg() {
+                        @Override
+                        public int xchg(AtomicInteger ai, int exp, int set) {
+                            if (!ai.weakCompareAndSetRelease(exp, set)) {
+                                if (exp == (exp = ai.getOpaque())) {
+                                    do {
+                                        if (ai.weakCompareAndSetRelease(exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = ai.getOpaque())
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new int_xchg() {
+                        @Override
+                        public int xchg(AtomicInteger atomicInteger, int expectedValue, int newValue) {
+                            return atomicInteger.compareAndExchangeRelease(expectedValue, newValue);
+                        }
+                    };
+        }
+        enum INTPlainXCHG {;
+            static final int_xchg ref = isWeak ?
+                    new int_xchg() {
+                        @Override
+                        public int xchg(AtomicInteger ai, int exp, int set) {
+                            if (!ai.weakCompareAndSetPlain(exp, set)) {
+                                if (exp == (exp = ai.getOpaque())) {
+                                    do {
+                                        if (ai.weakCompareAndSetPlain(exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = ai.getOpaque())
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new int_xchg() {
+                        @Override
+                        public int xchg(AtomicInteger atomicInteger, int expectedValue, int newValue) {
+                            return atomicInteger.compareAndExchangeAcquire(expectedValue, newValue);
+                        }
+                    };
+        }
+        //--------------- AtomicLong ---------------//
+
+        enum LONGAcqXCHG {;
+            static final long_xchg ref = isWeak ?
+                    new long_xchg() {
+                        @Override
+                        public long xchg(AtomicLong al, long exp, long set) {
+                            if (!al.weakCompareAndSetAcquire(exp, set)) {
+                                if (exp == (exp = al.getOpaque())) {
+                                    do {
+                                        if (al.weakCompareAndSetAcquire(exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = al.getOpaque())
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new long_xchg() {
+                        @Override
+                        public long xchg(AtomicLong al, long exp, long set) {
+                            return al.compareAndExchangeAcquire(exp, set);
+                        }
+                    };
+        }
+        enum LONGAcqRelXCHG {;
+            static final long_xchg ref = isWeak ?
+                    new long_xchg() {
+                        @Override
+                        public long xchg(AtomicLong al, long exp, long set) {
+                            if (!al.weakCompareAndSetVolatile(exp, set)) {
+                                if (exp == (exp = al.getOpaque())) {
+                                    do {
+                                        if (al.weakCompareAndSetVolatile(exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = al.getOpaque())
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new long_xchg() {
+                        @Override
+                        public long xchg(AtomicLong al, long exp, long set) {
+                            return al.compareAndExchange(exp, set);
+                        }
+                    };
+        }
+        enum LONGRelXCHG {;
+            static final long_xchg ref = isWeak ?
+                    new long_xchg() {
+                        @Override
+                        public long xchg(AtomicLong al, long exp, long set) {
+                            if (!al.weakCompareAndSetRelease(exp, set)) {
+                                if (exp == (exp = al.getOpaque())) {
+                                    do {
+                                        if (al.weakCompareAndSetRelease(exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = al.getOpaque())
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new long_xchg() {
+                        @Override
+                        public long xchg(AtomicLong al, long exp, long set) {
+                            return al.compareAndExchangeRelease(exp, set);
+                        }
+                    };
+        }
+        enum LONGPlainXCHG {;
+            static final long_xchg ref = isWeak ?
+                    new long_xchg() {
+                        @Override
+                        public long xchg(AtomicLong al, long exp, long set) {
+                            if (!al.weakCompareAndSetPlain(exp, set)) {
+                                if (exp == (exp = al.getOpaque())) {
+                                    do {
+                                        if (al.weakCompareAndSetPlain(exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = al.getOpaque())
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new long_xchg() {
+                        @Override
+                        public long xchg(AtomicLong al, long exp, long set) {
+                            return al.compareAndExchangeAcquire(exp, set);
+                        }
+                    };
+        }
+
+        //--------------- AtomicBoolean ---------------//
+
+        enum BOOLAcqXCHG {;
+            static final bool_xchg ref = isWeak ?
+                    new bool_xchg() {
+                        @Override
+                        public boolean xchg(AtomicBoolean ab, boolean exp, boolean set) {
+                            if (!ab.weakCompareAndSetAcquire(exp, set)) {
+                                if (exp == (exp = ab.getOpaque())) {
+                                    do {
+                                        if (ab.weakCompareAndSetAcquire(exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = ab.getOpaque())
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new bool_xchg() {
+                        @Override
+                        public boolean xchg(AtomicBoolean ab, boolean exp, boolean set) {
+                            return ab.compareAndExchangeAcquire(exp, set);
+                        }
+                    };
+        }
+        enum BOOLAcqRelXCHG {;
+            static final bool_xchg ref = isWeak ?
+                    new bool_xchg() {
+                        @Override
+                        public boolean xchg(AtomicBoolean ab, boolean exp, boolean set) {
+                            if (!ab.weakCompareAndSetVolatile(exp, set)) {
+                                if (exp == (exp = ab.getOpaque())) {
+                                    do {
+                                        if (ab.weakCompareAndSetVolatile(exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = ab.getOpaque())
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new bool_xchg() {
+                        @Override
+                        public boolean xchg(AtomicBoolean ab, boolean exp, boolean set) {
+                            return ab.compareAndExchange(exp, set);
+                        }
+                    };
+        }
+        enum BOOLRelXCHG {;
+            static final bool_xchg ref = isWeak ?
+                    new bool_xchg() {
+                        @Override
+                        public boolean xchg(AtomicBoolean ab, boolean exp, boolean set) {
+                            if (!ab.weakCompareAndSetRelease(exp, set)) {
+                                if (exp == (exp = ab.getOpaque())) {
+                                    do {
+                                        if (ab.weakCompareAndSetRelease(exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = ab.getOpaque())
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new bool_xchg() {
+                        @Override
+                        public boolean xchg(AtomicBoolean ab, boolean exp, boolean set) {
+                            return ab.compareAndExchangeRelease(exp, set);
+                        }
+                    };
+        }
+        enum BOOLPlainXCHG {;
+            static final bool_xchg ref = isWeak ?
+                    new bool_xchg() {
+                        @Override
+                        public boolean xchg(AtomicBoolean ab, boolean exp, boolean set) {
+                            if (!ab.weakCompareAndSetPlain(exp, set)) {
+                                if (exp == (exp = ab.getOpaque())) {
+                                    do {
+                                        if (ab.weakCompareAndSetPlain(exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = ab.getOpaque())
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new bool_xchg() {
+                        @Override
+                        public boolean xchg(AtomicBoolean ab, boolean exp, boolean set) {
+                            return ab.compareAndExchangeAcquire(exp, set);
+                        }
+                    };
+        }
+
+        //--------------- AtomicReference ---------------//
+
+        enum REFAcqXCHG {;
+            static final ref_xchg ref = isWeak ?
+                    new ref_xchg() {
+                        @Override
+                        public Object xchg(AtomicReference<Object> ar, Object exp, Object set) {
+                            if (!ar.weakCompareAndSetAcquire(exp, set)) {
+                                if (exp == (exp = ar.getOpaque())) {
+                                    do {
+                                        if (ar.weakCompareAndSetAcquire(exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = ar.getOpaque())
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new ref_xchg() {
+                        @Override
+                        public Object xchg(AtomicReference<Object> ar, Object exp, Object set) {
+                            return ar.compareAndExchangeAcquire(exp, set);
+                        }
+                    };
+        }
+        enum REFAcqRelXCHG {;
+            static final ref_xchg ref = isWeak ?
+                    new ref_xchg() {
+                        @Override
+                        public Object xchg(AtomicReference<Object> ar, Object exp, Object set) {
+                            if (!ar.weakCompareAndSetVolatile(exp, set)) {
+                                if (exp == (exp = ar.getOpaque())) {
+                                    do {
+                                        if (ar.weakCompareAndSetVolatile(exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = ar.getOpaque())
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new ref_xchg() {
+                        @Override
+                        public Object xchg(AtomicReference<Object> ar, Object exp, Object set) {
+                            return ar.compareAndExchange(exp, set);
+                        }
+                    };
+        }
+        enum REFRelXCHG {;
+            static final ref_xchg ref = isWeak ?
+                    new ref_xchg() {
+                        @Override
+                        public Object xchg(AtomicReference<Object> ar, Object exp, Object set) {
+                            if (!ar.weakCompareAndSetRelease(exp, set)) {
+                                if (exp == (exp = ar.getOpaque())) {
+                                    do {
+                                        if (ar.weakCompareAndSetRelease(exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = ar.getOpaque())
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new ref_xchg() {
+                        @Override
+                        public Object xchg(AtomicReference<Object> ar, Object exp, Object set) {
+                            return ar.compareAndExchangeRelease(exp, set);
+                        }
+                    };
+        }
+        enum REFPlainXCHG {;
+            static final ref_xchg ref = isWeak ?
+                    new ref_xchg() {
+                        @Override
+                        public Object xchg(AtomicReference<Object> ar, Object exp, Object set) {
+                            if (!ar.weakCompareAndSetPlain(exp, set)) {
+                                if (exp == (exp = ar.getOpaque())) {
+                                    do {
+                                        if (ar.weakCompareAndSetPlain(exp, set)) return exp;
+                                    } while (
+                                            exp == (exp = ar.getOpaque())
+                                    );
+                                }
+                            }
+                            return exp;
+                        }
+                    }
+                    :
+                    new ref_xchg() {
+                        @Override
+                        public Object xchg(AtomicReference<Object> ar, Object exp, Object set) {
+                            return ar.compareAndExchangeAcquire(exp, set);
+                        }
+                    };
+        }
+    }
+
+    // Moves the lazy allocation of the field OUTSIDE the constructor...
+    // Improving performance by:
+    // Allowing free speculation of function/enum value BEFORE object creation.
+    // In return the processor is allowed to speculate the creation and run of Threads before this object has finished creating.
+    // NO OOTA(Out of thin air) values are possible on real hardware since speculation occurs privately in the Thread cache
+    // and will never commit UNTIL confirmation returns true.
+    // Leaving the enum to lazy-init inside the constructor.. creates a strong dependence (fences between fences) so no speculation is allowed in the middle of the process between enum initialization and `WeakOptimizer` creation.
+    public static CAS getCAS(VarHandle vh, FENCE fence) { return new CAS(vh, fence.cas.get()); }
+    public static CAX getCAX(VarHandle vh, FENCE fence) { return new CAX(vh, fence.cax.get()); }
+    public static CMPXCHG getCMPXCHG(VarHandle vh, FENCE fence) { return new CMPXCHG(vh,fence.cas.get() , fence.cax.get()); }
+
+    /**
+     * Exact-typed versions of {@link CMPXCHG}, whose arguments are never boxed, nor adapted from {@code Object} to the type of the field.
+     * Only the receiver stays an {@code Object}, costing a cast at most.
+     * <p> {@link RefCAS} is typed by the {@code type} of the field instead, so that the expected and set values, and the witness, are checked at compile time.
+     * @throws IllegalArgumentException if the type of {@code vh} is not the one of the family (or {@code type}).
+     * */
+    public static BooleanCAS getBooleanCAS(VarHandle vh, FENCE fence) { return new BooleanCAS(typed(vh, boolean.class), fence.bool.get()); }
+    public static IntCAS getIntCAS(VarHandle vh, FENCE fence) { return new IntCAS(typed(vh, int.class), fence.i.get()); }
+    public static LongCAS getLongCAS(VarHandle vh, FENCE fence) { return new LongCAS(typed(vh, long.class), fence.l.get()); }
+    public static <V> RefCAS<V> getRefCAS(VarHandle vh, Class<V> type, FENCE fence) {
+        if (type.isPrimitive()) throw new IllegalArgumentException(TAG.concat(" - Expected a reference type, found " + type));
+        return new RefCAS<>(typed(vh, type), fence.ref.get());
+    }
+
+    /**
+     * Indexed versions of {@link #getIntCAS(VarHandle, FENCE)} and siblings, over the elements of an array,
+     * or over the aligned values of a {@link java.nio.ByteBuffer} view (where the index is a byte offset),
+     * so that striped tables and direct (off-heap) buffers get the same weak/strong selection without allocating a handle per slot.
+     * */
+    public static IntIndexedCAS getIntArrayCAS(FENCE fence) {
+        return new IntIndexedCAS(MethodHandles.arrayElementVarHandle(int[].class), fence.idx_i.get());
+    }
+    public static LongIndexedCAS getLongArrayCAS(FENCE fence) {
+        return new LongIndexedCAS(MethodHandles.arrayElementVarHandle(long[].class), fence.idx_l.get());
+    }
+    public static RefIndexedCAS getRefArrayCAS(Class<? extends Object[]> arrayClass, FENCE fence) {
+        return new RefIndexedCAS(MethodHandles.arrayElementVarHandle(arrayClass), fence.idx_ref.get());
+    }
+    public static IntIndexedCAS getIntBufferCAS(ByteOrder order, FENCE fence) {
+        return new IntIndexedCAS(MethodHandles.byteBufferViewVarHandle(int[].class, order), fence.idx_i.get());
+    }
+    public static LongIndexedCAS getLongBufferCAS(ByteOrder order, FENCE fence) {
+        return new LongIndexedCAS(MethodHandles.byteBufferViewVarHandle(long[].class, order), fence.idx_l.get());
+    }
+
+    private static VarHandle typed(VarHandle vh, Class<?> type) {
+        if (vh.varType() != type) throw new IllegalArgumentException(TAG.concat(" - Expected a " + type + " VarHandle, found " + vh.varType()));
+        return vh;
+    }
+
+    // VarHandle inheritance has shown better performance than direct referencing during C2 compilation.
+    // Explanation: Each loading of `vh` refers to the same field (method) on all children usages... hence "hitting" the execution-counter with more hits.
+    // Fostering a faster memory layout optimization and faster inlining.
+    // The shared scope... allows the optimization to "trickle-down" to all children via OSR using the machine code stored on the underlying `shared_runtime`.
+    public static final class CAS extends WeakOpt {
+        private final cas_ c;
+        private CAS(VarHandle vh, cas_ c) {
+            super(vh);
+            this.c = c;
+        }
+        public boolean cas(Object t, Object e, Object s) { return c.cas(vh, t, e, s); }
+    }
+
+    public static final class CAX extends WeakOpt {
+        private final xchg_ x;
+        private CAX(VarHandle vh, xchg_ x) {
+            super(vh);
+            this.x = x;
+        }
+        public Object xchg(Object t, Object e, Object s) { return x.xchg(vh, t, e, s); }
+    }
+
+    public static final class CMPXCHG extends WeakOpt {
+        private final cas_ c;
+        private final xchg_ x;
+        private CMPXCHG(VarHandle vh,
+                       cas_ c, xchg_ x
+            ) {
+            super(vh);
+            this.c = c;
+            this.x = x;
+        }
+        public boolean cas(Object t, Object e, Object s) { return c.cas(vh, t, e, s); }
+        public Object xchg(Object t, Object e, Object s) { return x.xchg(vh, t, e, s); }
+    }
+
+    public static final class BooleanCAS extends WeakOpt {
+        private final bool_cmpxchg x;
+        private BooleanCAS(VarHandle vh, bool_cmpxchg x) {
+            super(vh);
+            this.x = x;
+        }
+        public boolean cas(Object t, boolean e, boolean s) { return x.cas(vh, t, e, s); }
+        public boolean xchg(Object t, boolean e, boolean s) { return x.xchg(vh, t, e, s); }
+    }
+
+    public static final class IntCAS extends WeakOpt {
+        private final int_cmpxchg x;
+        private IntCAS(VarHandle vh, int_cmpxchg x) {
+            super(vh);
+            this.x = x;
+        }
+        public boolean cas(Object t, int e, int s) { return x.cas(vh, t, e, s); }
+        public int xchg(Object t, int e, int s) { return x.xchg(vh, t, e, s); }
+    }
+
+    public static final class LongCAS extends WeakOpt {
+        private final long_cmpxchg x;
+        private LongCAS(VarHandle vh, long_cmpxchg x) {
+            super(vh);
+            this.x = x;
+        }
+        public boolean cas(Object t, long e, long s) { return x.cas(vh, t, e, s); }
+        public long xchg(Object t, long e, long s) { return x.xchg(vh, t, e, s); }
+    }
+
+    public static final class RefCAS<V> extends WeakOpt {
+        private final ref_cmpxchg x;
+        private RefCAS(VarHandle vh, ref_cmpxchg x) {
+            super(vh);
+            this.x = x;
+        }
+        public boolean cas(Object t, V e, V s) { return x.cas(vh, t, e, s); }
+        @SuppressWarnings("unchecked")
+        public V xchg(Object t, V e, V s) { return (V) x.xchg(vh, t, e, s); }
+    }
+
+    public static final class IntIndexedCAS extends WeakOpt {
+        private final int_idx_cmpxchg x;
+        private IntIndexedCAS(VarHandle vh, int_idx_cmpxchg x) {
+            super(vh);
+            this.x = x;
+        }
+        public boolean cas(Object t, int index, int e, int s) { return x.cas(vh, t, index, e, s); }
+        public int xchg(Object t, int index, int e, int s) { return x.xchg(vh, t, index, e, s); }
+    }
+
+    public static final class LongIndexedCAS extends WeakOpt {
+        private final long_idx_cmpxchg x;
+        private LongIndexedCAS(VarHandle vh, long_idx_cmpxchg x) {
+            super(vh);
+            this.x = x;
+        }
+        public boolean cas(Object t, int index, long e, long s) { return x.cas(vh, t, index, e, s); }
+        public long xchg(Object t, int index, long e, long s) { return x.xchg(vh, t, index, e, s); }
+    }
+
+    public static final class RefIndexedCAS extends WeakOpt {
+        private final ref_idx_cmpxchg x;
+        private RefIndexedCAS(VarHandle vh, ref_idx_cmpxchg x) {
+            super(vh);
+            this.x = x;
+        }
+        public boolean cas(Object t, int index, Object e, Object s) { return x.cas(vh, t, index, e, s); }
+        public Object xchg(Object t, int index, Object e, Object s) { return x.xchg(vh, t, index, e, s); }
+    }
 
     public static final class WeakAtomicInteger {
         final AtomicInteger ai;
@@ -630,4 +2450,220 @@ public class WeakOpt {
 
         public int xchg(int exp, int set) { return x.xchg(ai, exp, set); }
     }
+
+    /**
+     * {@link WeakAtomicInteger}'s sibling, for sequences and timestamps.
+     * */
+    public static final class WeakAtomicLong {
+        final AtomicLong al;
+        final long_xchg x;
+
+        public enum FENCE {
+            ACQ(
+                    () -> Arch.LONGAcqXCHG.ref
+            ),
+            REL(
+                    () -> Arch.LONGRelXCHG.ref
+            ),
+            ACQ_REL(
+                    () -> Arch.LONGAcqRelXCHG.ref
+            ),
+            PLAIN(
+                    () -> Arch.LONGPlainXCHG.ref
+            )
+            ;
+            final Supplier<long_xchg> cax;
+
+            FENCE(Supplier<long_xchg> cax) { this.cax = cax; }
+        }
+
+        public static WeakAtomicLong getInstance(AtomicLong al, FENCE fence) {
+            return new WeakAtomicLong(al, fence.cax.get());
+        }
+
+        private WeakAtomicLong(AtomicLong al, long_xchg x) {
+            this.al = al;
+            this.x = x;
+        }
+
+        public long decrementAndGet() {
+            long prev = al.getOpaque(), next;
+            do {
+                next = prev - 1;
+            } while (prev != (prev = x.xchg(al, prev, next)));
+            return next;
+        }
+
+        public long updateAndGet(LongUnaryOperator operator) {
+            long prev = al.getOpaque(), next;
+            do {
+                next = operator.applyAsLong(prev);
+            } while (prev != (prev = x.xchg(al, prev, next)));
+            return next;
+        }
+
+        public long incrementAndGet() {
+            long prev = al.getOpaque(), next;
+            do {
+                next = prev + 1;
+            } while (prev != (prev = x.xchg(al, prev, next)));
+            return next;
+        }
+
+        @SuppressWarnings("StatementWithEmptyBody")
+        public long getAndDecrement() {
+            long prev = al.getOpaque();
+            while (prev != (prev = x.xchg(al, prev, prev - 1))) { }
+            return prev;
+        }
+
+        @SuppressWarnings("StatementWithEmptyBody")
+        public long getAndUpdate(LongUnaryOperator operator) {
+            long prev = al.getOpaque();
+            while (prev != (prev = x.xchg(al, prev, operator.applyAsLong(prev)))) { }
+            return prev;
+        }
+
+        @SuppressWarnings("StatementWithEmptyBody")
+        public long getAndIncrement() {
+            long prev = al.getOpaque();
+            while (prev != (prev = x.xchg(al, prev, prev + 1))) { }
+            return prev;
+        }
+
+        public void decrement() {
+            long prev = al.getOpaque();
+            for(;;) {
+                if (prev == (prev = x.xchg(al, prev, prev - 1))) break;
+            }
+        }
+
+        public void increment() {
+            long prev = al.getOpaque();
+            for(;;) {
+                if (prev == (prev = x.xchg(al, prev, prev + 1))) break;
+            }
+        }
+
+        public boolean cas(long exp, long set) { return x.xchg(al, exp, set) == exp; }
+
+        public long xchg(long exp, long set) { return x.xchg(al, exp, set); }
+    }
+
+    /**
+     * {@link WeakAtomicInteger}'s sibling, for flags and two-state machines, with no arithmetic.
+     * */
+    public static final class WeakAtomicBoolean {
+        final AtomicBoolean ab;
+        final bool_xchg x;
+
+        public enum FENCE {
+            ACQ(
+                    () -> Arch.BOOLAcqXCHG.ref
+            ),
+            REL(
+                    () -> Arch.BOOLRelXCHG.ref
+            ),
+            ACQ_REL(
+                    () -> Arch.BOOLAcqRelXCHG.ref
+            ),
+            PLAIN(
+                    () -> Arch.BOOLPlainXCHG.ref
+            )
+            ;
+            final Supplier<bool_xchg> cax;
+
+            FENCE(Supplier<bool_xchg> cax) { this.cax = cax; }
+        }
+
+        public static WeakAtomicBoolean getInstance(AtomicBoolean ab, FENCE fence) {
+            return new WeakAtomicBoolean(ab, fence.cax.get());
+        }
+
+        private WeakAtomicBoolean(AtomicBoolean ab, bool_xchg x) {
+            this.ab = ab;
+            this.x = x;
+        }
+
+        @SuppressWarnings("StatementWithEmptyBody")
+        public boolean getAndSet(boolean set) {
+            boolean prev = ab.getOpaque();
+            while (prev != (prev = x.xchg(ab, prev, set))) { }
+            return prev;
+        }
+
+        @SuppressWarnings("StatementWithEmptyBody")
+        public boolean getAndToggle() {
+            boolean prev = ab.getOpaque();
+            while (prev != (prev = x.xchg(ab, prev, !prev))) { }
+            return prev;
+        }
+
+        public boolean cas(boolean exp, boolean set) { return x.xchg(ab, exp, set) == exp; }
+
+        public boolean xchg(boolean exp, boolean set) { return x.xchg(ab, exp, set); }
+    }
+
+    /**
+     * {@link WeakAtomicInteger}'s sibling, for state machines over immutable states, compared by identity.
+     * */
+    @SuppressWarnings("unchecked")
+    public static final class WeakAtomicReference<V> {
+        final AtomicReference<Object> ar;
+        final ref_xchg x;
+
+        public enum FENCE {
+            ACQ(
+                    () -> Arch.REFAcqXCHG.ref
+            ),
+            REL(
+                    () -> Arch.REFRelXCHG.ref
+            ),
+            ACQ_REL(
+                    () -> Arch.REFAcqRelXCHG.ref
+            ),
+            PLAIN(
+                    () -> Arch.REFPlainXCHG.ref
+            )
+            ;
+            final Supplier<ref_xchg> cax;
+
+            FENCE(Supplier<ref_xchg> cax) { this.cax = cax; }
+        }
+
+        public static <V> WeakAtomicReference<V> getInstance(AtomicReference<V> ar, FENCE fence) {
+            return new WeakAtomicReference<>((AtomicReference<Object>) ar, fence.cax.get());
+        }
+
+        private WeakAtomicReference(AtomicReference<Object> ar, ref_xchg x) {
+            this.ar = ar;
+            this.x = x;
+        }
+
+        public V updateAndGet(UnaryOperator<V> operator) {
+            Object prev = ar.getOpaque(), next;
+            do {
+                next = operator.apply((V) prev);
+            } while (prev != (prev = x.xchg(ar, prev, next)));
+            return (V) next;
+        }
+
+        @SuppressWarnings("StatementWithEmptyBody")
+        public V getAndUpdate(UnaryOperator<V> operator) {
+            Object prev = ar.getOpaque();
+            while (prev != (prev = x.xchg(ar, prev, operator.apply((V) prev)))) { }
+            return (V) prev;
+        }
+
+        @SuppressWarnings("StatementWithEmptyBody")
+        public V getAndSet(V set) {
+            Object prev = ar.getOpaque();
+            while (prev != (prev = x.xchg(ar, prev, set))) { }
+            return (V) prev;
+        }
+
+        public boolean cas(V exp, V set) { return x.xchg(ar, exp, set) == exp; }
+
+        public V xchg(V exp, V set) { return (V) x.xchg(ar, exp, set); }
+    }
 }
@@ -1,5 +1,6 @@
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.LockSupport;
 import java.util.function.Function;
 
@@ -13,7 +14,7 @@ import java.util.function.Function;
  * @author Juan Andrade Salazar
  * <p> - juanandrade_20@hotmail.com
  * */
-public class WeakUnfairMCS {
+public class WeakUnfairMCS implements Synchronizer {
     private static class Node {
 
         public Node xchg(Node nextNode) { return (Node) next_acq.xchg(this, null, nextNode); }
@@ -34,9 +35,32 @@ public class WeakUnfairMCS {
 
         public Node() { this.next = null; }
 
-        void park() {
+        /** Whether `next` still holds a value from the node's previous life, owner-confined.*/
+        boolean stale;
+
+        static final ThreadLocal<Node[]> cache = ThreadLocal.withInitial(() -> new Node[1]);
+
+        /**
+         * The node of the current Thread, which has always been polled by the time its owner tries to acquire again.
+         * <p> Its `next` is left as it was after polling (never null), so that stale pushers still holding it as their tail cannot link behind it,
+         * until it is published again, see {@link WeakUnfairMCS#published(Node)}.
+         * */
+        static Node recycled() {
+            final Node[] slot = cache.get();
+            Node n = slot[0];
+            if (n == null) slot[0] = n = new Node();
+            else {
+                n.parked = true;
+                n.stale = true;
+            }
+            return n;
+        }
+
+        void park(WaitPolicy policy, WeakUnfairMCS blocker) {
+            int i = 0;
             while ((boolean) PARKED.getOpaque(this)) {
-                LockSupport.park();
+                if (LockStats.ENABLED && i == WaitPolicy.PARK) blocker.stats.parked();
+                i = WaitPolicy.park(policy, i, blocker);
             }
         }
     }
@@ -58,8 +82,9 @@ public class WeakUnfairMCS {
     private static final VarHandle TOP;
     private static final VarHandle TAIL;
     private static final VarHandle BUSY;
+    private static final VarHandle PARKED_HEAD;
     private static final WeakOpt.CAX next_acq;
-    private static final WeakOpt.CAS busy_acq;
+    private static final WeakOpt.BooleanCAS busy_acq;
     private static final WeakOpt.CMPXCHG tail_acq;
     private static final WeakOpt.CAX tail_plain;
     private static final WeakOpt.CAS top_plain;
@@ -75,7 +100,8 @@ public class WeakUnfairMCS {
             tail_acq = WeakOpt.getCMPXCHG(TAIL, WeakOpt.FENCE.ACQ);
             tail_plain = WeakOpt.getCAX(TAIL, WeakOpt.FENCE.PLAIN);
             BUSY = MethodHandles.lookup().findVarHandle(WeakUnfairMCS.class, "busy", boolean.class);
-            busy_acq = WeakOpt.getCAS(BUSY, WeakOpt.FENCE.ACQ);
+            busy_acq = WeakOpt.getBooleanCAS(BUSY, WeakOpt.FENCE.ACQ);
+            PARKED_HEAD = MethodHandles.lookup().findVarHandle(WeakUnfairMCS.class, "parkedHead", Thread.class);
         } catch (NoSuchFieldException | IllegalAccessException e) {
             throw new ExceptionInInitializerError(e);
         }
@@ -86,14 +112,81 @@ public class WeakUnfairMCS {
 
     private volatile boolean busy = false;
 
+    /**
+     * The HEAD, once its {@link #head} policy gave up idling and parked, see {@link #headIdle(int)}.
+     * */
+    private volatile Thread parkedHead;
+
+    /**
+     * Bound of a parked HEAD, only reached if {@link #release()} missed it.
+     * */
+    static final long HEAD_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    final boolean recycle;
+
+    /** Null unless {@link LockStats#ENABLED}.*/
+    final LockStats stats = LockStats.create();
+
+    /**
+     * Idling of the nodes behind the HEAD, awakened by their predecessor, and of the HEAD itself, while {@link #busy}.
+     * */
+    final WaitPolicy queued, head;
+
+    public WeakUnfairMCS() { this(false); }
+
+    /**
+     * @param recycle if true, contended acquisitions reuse a per-Thread node, so that the steady-state contended path allocates nothing.
+     * */
+    public WeakUnfairMCS(boolean recycle) { this(recycle, WaitPolicy.PARKING, WaitPolicy.SPIN); }
+
+    /**
+     * @param queued default {@link WaitPolicy#PARKING}.
+     * @param head default {@link WaitPolicy#SPIN}, a {@link WaitPolicy#PARK} parks the HEAD until {@link #release()}.
+     * */
+    public WeakUnfairMCS(boolean recycle, WaitPolicy queued, WaitPolicy head) {
+        this.recycle = recycle;
+        this.queued = queued;
+        this.head = head;
+    }
+
+    /**
+     * Clears the `next` of a recycled node, once it has been linked.
+     * <p> Pushers that read this node as the {@link #tail} before the clearing simply retry,
+     * while stale pushers from its previous life link behind it, where they belong, helping the {@link #tail} forward.
+     * <p> Whether to clear is decided by {@link Node#stale}, never by re-reading `next`, which may already hold a fresh successor.
+     * */
+    private static void published(Node nextNode) {
+        if (nextNode.stale) {
+            nextNode.stale = false;
+            NEXT.setRelease(nextNode, null);
+        }
+    }
+
     private Object firstTail(Node nextNode) {
         Object wit;
         if ((wit = tail_acq.xchg(this, null, nextNode)) == null) {
             top = nextNode;
+            published(nextNode);
             return null;
         } else return wit;
     }
 
+    /**
+     * Same as {@link UnfairMCS}' HEAD: publish, full fence, re-check {@link #busy} with a volatile load, and park bounded by {@link #HEAD_PARK_NANOS},
+     * since the load in {@link #release()} may still float above its store.
+     * */
+    private int headIdle(int i) {
+        if (i != WaitPolicy.PARK) return head.idle(i);
+        parkedHead = Thread.currentThread();
+        VarHandle.fullFence();
+        if ((boolean) BUSY.getVolatile(this)) {
+            if (LockStats.ENABLED) stats.parked();
+            LockSupport.parkNanos(this, HEAD_PARK_NANOS);
+        }
+        PARKED_HEAD.setOpaque(this, null);
+        return WaitPolicy.PARK;
+    }
+
     boolean busy() { return busy; }
 
     public void whileBusy() {
@@ -112,12 +205,16 @@ public class WeakUnfairMCS {
         }
     }
 
-    @SuppressWarnings("StatementWithEmptyBody")
+    @Override
     public void acquire() {
         Object h = tail;
         boolean nullH = h == null;
-        if (nullH && busy_acq.cas(this, false, true)) return;
-        final Node nextNode = new Node();
+        if (nullH && busy_acq.cas(this, false, true)) {
+            if (LockStats.ENABLED) stats.fastPath();
+            return;
+        }
+        final long since = LockStats.ENABLED ? stats.queued() : 0L;
+        final Node nextNode = recycle ? Node.recycled() : new Node();
         cont:
         if (!nullH || (h = firstTail(nextNode)) != null) {
             Node next_n = (Node) h;
@@ -127,12 +224,16 @@ public class WeakUnfairMCS {
                 if (next_n.next == null) continue;
                 h = tail;
                 if (h == null) {
-                    if (busy_acq.cas(this, false, true)) return;
+                    if (busy_acq.cas(this, false, true)) {
+                        if (LockStats.ENABLED) stats.acquired(since); // barged in before linking.
+                        return;
+                    }
                     h = firstTail(nextNode);
                     if (h == null) break cont;
                 }
                 next_n = (Node) h;
             }
+            published(nextNode);
 
             Object reg = tail_plain.xchg(this, h, nextNode);
             while (h != reg && nextNode.next == null) {
@@ -140,10 +241,13 @@ public class WeakUnfairMCS {
                 reg = tail_plain.xchg(this, h, nextNode);
             }
 
-            nextNode.park();
+            nextNode.park(queued, this);
         }
 
-        while (!BUSY.compareAndSet(this, false, true)) { }
+        int i = 0;
+        while (!BUSY.compareAndSet(this, false, true)) {
+            i = headIdle(i);
+        }
 
         // -------- poll
 
@@ -156,6 +260,7 @@ public class WeakUnfairMCS {
         } else if (next == null) {
             if (tail_acq.cas(this, first, null)) {
                 top_plain.cas(this, first, null);
+                if (LockStats.ENABLED) stats.acquired(since);
                 return;
             }
             next = first.next;
@@ -164,10 +269,44 @@ public class WeakUnfairMCS {
         top = next;
         next.parked = false;
         VarHandle.storeStoreFence();
+        if (LockStats.ENABLED) {
+            stats.unparked();
+            stats.acquired(since);
+        }
         LockSupport.unpark(next.current);
         // BUSY.set release keeps everything up here...
     }
 
-    public void release() { BUSY.setRelease(this, false); }
+    @Override
+    public boolean tryAcquire() {
+        if (busy_acq.cas(this, false, true)) {
+            if (LockStats.ENABLED) stats.fastPath();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * A single {@code setRelease}, followed by an opaque load of {@link #parkedHead}, which is only ever set when the HEAD parks.
+     * */
+    @Override
+    public void release() {
+        if (LockStats.ENABLED) stats.released();
+        BUSY.setRelease(this, false);
+        final Thread parked;
+        if ((parked = (Thread) PARKED_HEAD.getOpaque(this)) != null) {
+            if (LockStats.ENABLED) stats.unparked();
+            LockSupport.unpark(parked);
+        }
+    }
+
+    @Override
+    public LockStats stats() { return stats; }
+
+    @Override
+    public boolean isFair() { return false; }
+
+    @Override
+    public boolean isParking() { return true; }
 }
 
@@ -0,0 +1,92 @@
+import com.skylarkarms.print.Print;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Outside completions of {@link UnfairMCS#acquireAsync()} futures, which must abandon the queue instead of leaking the lock.
+ * <p> Run with {@code -ea}.
+ * */
+public class AsyncTest {
+
+    static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    /** The lock must be free, and acquirable.*/
+    static void assertFree(UnfairMCS lock, String what) throws InterruptedException {
+        assert lock.tryAcquire(TIMEOUT_NANOS) : what + ": lock leaked";
+        lock.release();
+    }
+
+    static Throwable cause(CompletableFuture<?> f) {
+        try {
+            f.join();
+            return null;
+        } catch (CompletionException e) {
+            return e.getCause();
+        }
+    }
+
+    /** A contended future times out while queued, and the next waiter behind it still gets the lock.*/
+    static void orTimeout() throws Exception {
+        final UnfairMCS lock = new UnfairMCS();
+        lock.acquire();
+        final CompletableFuture<UnfairMCS.Permit> timed = lock.acquireAsync().orTimeout(10, TimeUnit.MILLISECONDS);
+        final CompletableFuture<UnfairMCS.Permit> next = lock.acquireAsync();
+        assert cause(timed) instanceof TimeoutException : "expected a TimeoutException";
+        lock.release();
+        next.get(5, TimeUnit.SECONDS).release();
+        assertFree(lock, "orTimeout");
+    }
+
+    /** Outside completions win, or lose, against the release, the lock is never left held.*/
+    static void outsideCompletions() throws Exception {
+        final UnfairMCS lock = new UnfairMCS();
+        for (int i = 0; i < 10_000; i++) {
+            lock.acquire();
+            final CompletableFuture<UnfairMCS.Permit> f = lock.acquireAsync();
+            final Thread settler = new Thread(() -> {
+                switch (ThreadLocalRandom.current().nextInt(3)) {
+                    case 0: f.complete(null); break;
+                    case 1: f.completeExceptionally(new IllegalStateException()); break;
+                    default: f.completeOnTimeout(null, 0, TimeUnit.NANOSECONDS);
+                }
+            });
+            settler.start();
+            lock.release();
+            settler.join();
+            final UnfairMCS.Permit permit;
+            try {
+                permit = f.join();
+            } catch (CompletionException e) {
+                continue; // abandoned.
+            }
+            if (permit != null) permit.release(); // the settler lost, the lock was handed over.
+        }
+        assertFree(lock, "outsideCompletions");
+    }
+
+    /** A rejected completion releases the lock, and fails the future.*/
+    static void rejected() throws Exception {
+        final UnfairMCS lock = new UnfairMCS();
+        lock.acquire();
+        final CompletableFuture<UnfairMCS.Permit> f = lock.acquireAsync(command -> { throw new RejectedExecutionException(); });
+        lock.release();
+        assert cause(f) instanceof RejectedExecutionException : "expected a RejectedExecutionException";
+        assertFree(lock, "rejected");
+    }
+
+    public static void main(String[] args) throws Exception {
+        Print.yellow.ln("Begin...");
+        orTimeout();
+        Print.green.ln("orTimeout... OK");
+        outsideCompletions();
+        Print.green.ln("outsideCompletions... OK");
+        rejected();
+        Print.green.ln("rejected... OK");
+        Print.cyan.ln("DONE...");
+    }
+}
@@ -0,0 +1,156 @@
+import com.skylarkarms.print.Print;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Read-mostly throughput of {@link UnfairRWMCS} against {@link ReentrantReadWriteLock} and {@link StampedLock},
+ * at read/write ratios from 50/50 to 99/1.
+ * */
+public class RWTest {
+
+    static final int[] read_ratios = {50, 75, 90, 95, 99};
+    static final int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    static final int ops = 100_000;
+    static final int reps = 5;
+
+    /**
+     * The protected state, readers sum it, writers increment every slot.
+     * */
+    static final class Data {
+        final long[] slots = new long[8];
+        long writes;
+
+        long read() {
+            long sum = 0;
+            for (long slot : slots) sum += slot;
+            return sum;
+        }
+
+        void write() {
+            for (int i = 0; i < slots.length; i++) slots[i]++;
+            writes++;
+        }
+    }
+
+    interface Strategy {
+        long read(Data data);
+        void write(Data data);
+    }
+
+    static Strategy mcs() {
+        final UnfairRWMCS lock = new UnfairRWMCS();
+        return new Strategy() {
+            @Override
+            public long read(Data data) {
+                lock.acquireRead();
+                try { return data.read(); }
+                finally { lock.releaseRead(); }
+            }
+
+            @Override
+            public void write(Data data) {
+                lock.acquireWrite();
+                try { data.write(); }
+                finally { lock.releaseWrite(); }
+            }
+        };
+    }
+
+    static Strategy rrwl() {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        return new Strategy() {
+            @Override
+            public long read(Data data) {
+                lock.readLock().lock();
+                try { return data.read(); }
+                finally { lock.readLock().unlock(); }
+            }
+
+            @Override
+            public void write(Data data) {
+                lock.writeLock().lock();
+                try { data.write(); }
+                finally { lock.writeLock().unlock(); }
+            }
+        };
+    }
+
+    static Strategy stamped() {
+        final StampedLock lock = new StampedLock();
+        return new Strategy() {
+            @Override
+            public long read(Data data) {
+                long stamp = lock.readLock();
+                try { return data.read(); }
+                finally { lock.unlockRead(stamp); }
+            }
+
+            @Override
+            public void write(Data data) {
+                long stamp = lock.writeLock();
+                try { data.write(); }
+                finally { lock.unlockWrite(stamp); }
+            }
+        };
+    }
+
+    static volatile long sink;
+
+    /**
+     * @return the elapsed nanos of {@link #threads} Threads performing {@link #ops} operations each.
+     * */
+    static long run(Strategy strategy, int readRatio) throws InterruptedException {
+        final Data data = new Data();
+        final int[] expectedWrites = new int[threads];
+        final Thread[] ts = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int index = t;
+            ts[t] = new Thread(() -> {
+                final ThreadLocalRandom r = ThreadLocalRandom.current();
+                long local = 0;
+                int writes = 0;
+                for (int i = 0; i < ops; i++) {
+                    if (r.nextInt(100) < readRatio) local += strategy.read(data);
+                    else {
+                        strategy.write(data);
+                        writes++;
+                    }
+                }
+                expectedWrites[index] = writes;
+                sink = local;
+            });
+        }
+        long start = System.nanoTime();
+        for (Thread t : ts) t.start();
+        for (Thread t : ts) t.join();
+        long elapsed = System.nanoTime() - start;
+
+        long expected = 0;
+        for (int w : expectedWrites) expected += w;
+        assert data.writes == expected :
+                "\n expected writes = " + expected
+                + "\n real = " + data.writes;
+        return elapsed;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Print.yellow.ln("Begin... threads = " + threads + ", ops/thread = " + ops);
+        final String[] names = {"unfair_rw_mcs", "reentrant_rw_lock", "stamped_lock"};
+        for (int ratio : read_ratios) {
+            long[] best = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE};
+            for (int rep = 0; rep < reps; rep++) {
+                best[0] = Math.min(best[0], run(mcs(), ratio));
+                best[1] = Math.min(best[1], run(rrwl(), ratio));
+                best[2] = Math.min(best[2], run(stamped(), ratio));
+            }
+            StringBuilder sb = new StringBuilder("\n read/write = " + ratio + "/" + (100 - ratio));
+            for (int i = 0; i < names.length; i++) {
+                sb.append("\n    ").append(names[i]).append(" = ").append(Print.Nanos.toString(best[i]));
+            }
+            Print.green.ln(sb);
+        }
+        Print.cyan.ln("DONE...");
+    }
+}
@@ -1,81 +1,144 @@
 import com.skylarkarms.print.Print;
-import com.skylarkarms.stringutils.StringUtils;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.Array;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import java.util.Random;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Tiered benchmark runner: each tier spawns `size` Threads adding into a single {@link Adder},
+ * growing `size` by `factor` on every tier, and the whole sweep repeated `reps` times per strategy.
+ * <p> Usage (every argument is optional):
+ * <pre>{@code
+ * SyncTest --strategy=unfair_mcs,fair_mcs --factor=1.5 --tiers=23 --size=23 --reps=8 --out=build/sync_test --format=csv,json
+ * }</pre>
+ * {@code --strategy=all} sweeps every {@link Synchronizers} constant.
+ * {@code --mode=combining} runs the additions through a {@link CombiningMCS} instead of each strategy, reported as {@code combining_mcs},
+ * and {@code --mode=delegation} through a {@link DelegationLock}, reported as {@code delegation}, e.g. to compare both against {@code --strategy=unfair_mcs}.
+ * {@code --alloc=true} also prints the bytes each worker Thread allocated around its whole addition (the lock and the section, sampled outside the lock),
+ * at the cost of two MXBean calls per Thread within the timed region, so its times are not comparable with those of runs without it.
+ * One file per strategy is written into `out`, named {@code MonitorTest_<strategy>}, with a row per tier and a column per repetition.
+ * */
 public class SyncTest {
 
-    private static final String TYPE = "weak_A";
-//    private static final String TYPE = "weak_B";
-
     private static final String TAG = "MonitorTest_";
 
-    static int instance_count;
-
-    static void save() {
-        if (instance_count < main_reps - 1) {
-            instance_count++;
-            main(null);
-        } else {
-            Print.cyan.ln("DONE...");
-            String[][] res =
-                    addRow(
-                            StringUtils.fromColumns(SyncTest.times),
-                            0, TYPE
-                    )
-                    ;
-            Print.Export.to_csv.save(
-                    "C:\\java_tests", TAG.concat(TYPE),
-                    res
-            );
+    static final class Config {
+        List<Synchronizers> strategies = List.of(Synchronizers.WEAK_UNFAIR_MCS);
+        double factor = 1.5;
+        int tiers = 23;
+        int size = 23;
+        int reps = 8;
+        Path out = Paths.get("build", "sync_test");
+        boolean csv = true, json = false;
+        /** Whether to sample allocations, see {@link #tier(String, Synchronizers, int, int, boolean)}.*/
+        boolean alloc = false;
+        /** lock, combining or delegation.*/
+        String mode = "lock";
+
+        static Config parse(String[] args) {
+            final Config c = new Config();
+            if (args == null) return c;
+            for (String arg : args) {
+                final int eq = arg.indexOf('=');
+                if (!arg.startsWith("--") || eq < 0) throw new IllegalArgumentException("Expected --key=value, found [" + arg + "]");
+                final String key = arg.substring(2, eq), value = arg.substring(eq + 1);
+                switch (key) {
+                    case "strategy": {
+                        if (value.equalsIgnoreCase("all")) c.strategies = List.of(Synchronizers.values());
+                        else {
+                            final List<Synchronizers> res = new ArrayList<>();
+                            for (String s : value.split(",")) res.add(Synchronizers.of(s));
+                            c.strategies = res;
+                        }
+                        break;
+                    }
+                    case "factor": c.factor = Double.parseDouble(value); break;
+                    case "tiers": c.tiers = Integer.parseInt(value); break;
+                    case "size": c.size = Integer.parseInt(value); break;
+                    case "reps": c.reps = Integer.parseInt(value); break;
+                    case "out": c.out = Paths.get(value); break;
+                    case "alloc": c.alloc = Boolean.parseBoolean(value); break;
+                    case "mode": {
+                        c.mode = value.toLowerCase();
+                        if (!List.of("lock", "combining", "delegation").contains(c.mode)) throw new IllegalArgumentException("Unknown mode [" + value + "]"
+                                + "\n    Options = [lock, combining, delegation]");
+                        break;
+                    }
+                    case "format": {
+                        final List<String> formats = Arrays.asList(value.toLowerCase().split(","));
+                        c.csv = formats.contains("csv");
+                        c.json = formats.contains("json");
+                        break;
+                    }
+                    default: throw new IllegalArgumentException("Unknown argument [" + arg + "]"
+                            + "\n    Options = [--strategy, --factor, --tiers, --size, --reps, --out, --format, --mode, --alloc]");
+                }
+            }
+            return c;
+        }
+
+        int size(int tier) {
+            int s = size;
+            for (int i = 0; i < tier; i++) s = (int) (s * factor);
+            return s;
         }
     }
 
-    static final double factor = 1.5;
-    static final int maxTries = 23;
-//    static final int maxTries = 13;
-//    static final int maxTries = 11;
-//    static final int maxTries = 20;
-//    static final int maxTries = 6;
-//    static final int maxTries = 10;
-//    static final int maxTries = 10;
-//    static final int maxTries = 25;
-//    static final int size = 50;
-    static final int size = 23;
-//    static final int size = 10;
-//    static final int size = 500;
-//    static final int size = 150_000;
-//    static final int size = 700_000;
-    static int main_reps = 8;
-    static final long[][] times = new long[main_reps][maxTries];
+    // bytes allocated by the current Thread, only sampled with `--alloc=true`, around each worker's addition.
+    static final com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
 
     static class Adder {
         volatile int res = 0;
         private volatile BigInteger lastValue = BigInteger.valueOf(4);
 
-        final WeakUnfairMCS monitor = new WeakUnfairMCS();//12
-//        final WeakUnfairMCS_MHC7 monitor = new WeakUnfairMCS_MHC7();//15
-//        final WeakUnfairMCS_AKHV monitor = new WeakUnfairMCS_AKHV();//18
+        final Synchronizer monitor;
+        final CombiningMCS<Adder> combiner;
+        final DelegationLock<Adder> delegation;
+
+        /**
+         * @param monitor null for the given mode.
+         * */
+        Adder(String mode, Synchronizer monitor) {
+            this.monitor = monitor;
+            this.combiner = mode.equals("combining") ? new CombiningMCS<>(this) : null;
+            this.delegation = mode.equals("delegation") ? new DelegationLock<>(this) : null;
+        }
 
-//        synchronized void add(int i) {
         void add(int i) {
-//            monitor.lock();
+            if (combiner != null) {
+                combiner.combine(adder -> adder.unsafeAdd(i));
+                return;
+            }
+            if (delegation != null) {
+                delegation.delegate(adder -> adder.unsafeAdd(i));
+                return;
+            }
             monitor.acquire();
-            res = res + i;
-            lastValue = lastValue.multiply(BigInteger.valueOf(i));
-//            monitor.unlock();
+            unsafeAdd(i);
             monitor.release();
         }
 
-//        int branch() {
-//            return monitor.a_min_b();
-//        }
+        private Void unsafeAdd(int i) {
+            res = res + i;
+            lastValue = lastValue.multiply(BigInteger.valueOf(i));
+            return null;
+        }
 
         void sanity(int[] ints) {
             BigInteger lastValue = BigInteger.valueOf(4);
@@ -99,14 +162,33 @@ public class SyncTest {
         System.exit(0);
     };
 
-    public static void main(String[] args) {
-        Print.yellow.ln("Begin... instance count = " + instance_count);
-        next(0, size);
+    public static void main(String[] args) throws InterruptedException, IOException {
+        final Config config = Config.parse(args);
+        Files.createDirectories(config.out);
+        final boolean lock = config.mode.equals("lock");
+        for (Synchronizers strategy : lock ? config.strategies : Collections.<Synchronizers>singletonList(null)) {
+            final String type = lock ? strategy.name().toLowerCase() : config.mode.equals("combining") ? "combining_mcs" : "delegation";
+            final long[][] times = new long[config.reps][config.tiers];
+            for (int rep = 0; rep < config.reps; rep++) {
+                Print.yellow.ln("Begin... " + type + ", instance count = " + rep);
+                for (int tier = 0; tier < config.tiers; tier++) {
+                    times[rep][tier] = tier(config.mode, strategy, tier, config.size(tier), config.alloc);
+                }
+            }
+            Print.cyan.ln("DONE... " + type);
+            if (config.csv) save(config.out.resolve(TAG.concat(type).concat(".csv")), toCsv(type, config, times));
+            if (config.json) save(config.out.resolve(TAG.concat(type).concat(".json")), toJson(type, config, times));
+        }
     }
 
-    static void next(int tries, int size) {
+    /**
+     * @param strategy null unless the mode is {@code lock}.
+     * @param alloc whether each worker samples the bytes it allocated, before and after its whole addition, never while holding the lock.
+     * @return the elapsed time of the tier, divided by 100, as charted in the README.
+     * */
+    static long tier(String mode, Synchronizers strategy, int tier, int size, boolean alloc) throws InterruptedException {
         Print.green.ln("" +
-                "\n Iteration = " + tries
+                "\n Iteration = " + tier
                 + "\n size = " + size
         );
         Executor service = command -> {
@@ -117,46 +199,83 @@ public class SyncTest {
         Random r = new Random();
         int[] nums = r.ints(size, 10, 101).toArray();
 
-        Adder adder = new Adder();
+        Adder adder = new Adder(mode, strategy == null ? null : strategy.create());
         long[] start = new long[1];
+        long[] last = new long[1];
         AtomicInteger start_count = new AtomicInteger();
         AtomicInteger end_count = new AtomicInteger();
+        CountDownLatch finished = new CountDownLatch(1);
+        LongAdder allocated = new LongAdder();
         for (int j = 0; j < size; j++) {
             int finalJ = j;
             service.execute(
                     () -> {
                         if (start_count.incrementAndGet() == 1) start[0] = System.nanoTime();
 
-                        adder.add(nums[finalJ]);
+                        if (alloc) {
+                            long before = allocations.getCurrentThreadAllocatedBytes();
+                            adder.add(nums[finalJ]);
+                            allocated.add(allocations.getCurrentThreadAllocatedBytes() - before);
+                        } else adder.add(nums[finalJ]);
 
                         // because of possible unfairness, we cannot rely on the BEFORE value from `start_count` and need a separate counter for the HAPPENS AFTER.
-//                        if (start_count.decrementAndGet() == 0) {
                         if (end_count.incrementAndGet() == size) {
                             long p_l = System.nanoTime() - start[0];
-                            long last = p_l/100;
-                            try {
-                                times[instance_count][tries] = last;
-                                Print.blue.ln(
-                                        "finish = " + Print.Nanos.toString(times[instance_count][tries])
-//                                        + "\n branch count = " + adder.branch()
-                                );
-//                                adder.monitor.readBranch();
-                                Thread.sleep(TimeUnit.MILLISECONDS.toMillis(150));
-                                adder.sanity(nums);
-                                int next_size = (int) (size * factor);
-                                int next_try = tries + 1;
-                                if (next_try < maxTries) {
-                                    next(next_try, next_size);
-                                } else {
-                                    save();
-                                }
-                            } catch (Exception | Error e) {
-                                throw new RuntimeException(e);
-                            }
+                            last[0] = p_l/100;
+                            finished.countDown();
                         }
                     }
             );
         }
+        finished.await();
+        Print.blue.ln(
+                "finish = " + Print.Nanos.toString(last[0])
+                + (alloc ? "\n bytes/addition = " + ((double) allocated.sum() / size) : "")
+        );
+        Thread.sleep(TimeUnit.MILLISECONDS.toMillis(150));
+        adder.sanity(nums);
+        if (adder.delegation != null) adder.delegation.close();
+        return last[0];
+    }
+
+    static String[][] toTable(Config config, long[][] times) {
+        final String[][] table = new String[config.tiers][config.reps + 1];
+        for (int tier = 0; tier < config.tiers; tier++) {
+            table[tier][0] = Integer.toString(config.size(tier));
+            for (int rep = 0; rep < config.reps; rep++) table[tier][rep + 1] = Long.toString(times[rep][tier]);
+        }
+        return table;
+    }
+
+    static String toCsv(String type, Config config, long[][] times) {
+        final String[] header = new String[config.reps + 1];
+        header[0] = "size";
+        for (int rep = 0; rep < config.reps; rep++) header[rep + 1] = type.concat("_").concat(Integer.toString(rep));
+        final StringBuilder sb = new StringBuilder();
+        for (String[] row : addRow(toTable(config, times), 0, header)) sb.append(String.join(",", row)).append('\n');
+        return sb.toString();
+    }
+
+    static String toJson(String type, Config config, long[][] times) {
+        final StringBuilder sb = new StringBuilder()
+                .append("{\n  \"strategy\": \"").append(type)
+                .append("\",\n  \"factor\": ").append(config.factor)
+                .append(",\n  \"unit\": \"nanos/100\"")
+                .append(",\n  \"tiers\": [");
+        final String[][] table = toTable(config, times);
+        for (int tier = 0; tier < table.length; tier++) {
+            sb.append(tier == 0 ? "\n" : ",\n")
+                    .append("    {\"size\": ").append(table[tier][0])
+                    .append(", \"times\": [")
+                    .append(String.join(", ", Arrays.copyOfRange(table[tier], 1, table[tier].length)))
+                    .append("]}");
+        }
+        return sb.append("\n  ]\n}\n").toString();
+    }
+
+    static void save(Path file, String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        Print.cyan.ln("Saved: " + file.toAbsolutePath());
     }
 
     @SafeVarargs
@@ -0,0 +1,193 @@
+import com.skylarkarms.print.Print;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Single-Thread semantics of every typed, indexed and atomic family of {@link WeakOpt}, under each {@link WeakOpt.FENCE}:
+ * a cas succeeds (and stores) or fails (and stores nothing), an xchg returns its witness, and a misaligned buffer offset throws.
+ * <p> The weak/strong model is fixed once per JVM, so without {@code -Dweakopt.weak} the harness re-runs itself under
+ * {@code -Dweakopt.weak=true} and {@code -Dweakopt.weak=false}, with the same class path.
+ * <p> Run with {@code -ea}.
+ * */
+public class WeakOptCasTest {
+
+    static final class Fields {
+        boolean b;
+        int i;
+        long l;
+        String s;
+    }
+
+    static final VarHandle B, I, L, S;
+
+    static {
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            B = lookup.findVarHandle(Fields.class, "b", boolean.class);
+            I = lookup.findVarHandle(Fields.class, "i", int.class);
+            L = lookup.findVarHandle(Fields.class, "l", long.class);
+            S = lookup.findVarHandle(Fields.class, "s", String.class);
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    static final String A = "a", Z = "z", X = "x";
+
+    static void typed(WeakOpt.FENCE fence) {
+        final Fields f = new Fields();
+
+        final WeakOpt.BooleanCAS b = WeakOpt.getBooleanCAS(B, fence);
+        assert b.cas(f, false, true) && f.b : fence + " boolean cas success";
+        assert !b.cas(f, false, true) && f.b : fence + " boolean cas failure";
+        assert b.xchg(f, false, false) && f.b : fence + " boolean xchg failure witness";
+        assert b.xchg(f, true, false) && !f.b : fence + " boolean xchg success witness";
+
+        final WeakOpt.IntCAS i = WeakOpt.getIntCAS(I, fence);
+        assert i.cas(f, 0, 1) && f.i == 1 : fence + " int cas success";
+        assert !i.cas(f, 0, 2) && f.i == 1 : fence + " int cas failure";
+        assert i.xchg(f, 0, 3) == 1 && f.i == 1 : fence + " int xchg failure witness";
+        assert i.xchg(f, 1, 3) == 1 && f.i == 3 : fence + " int xchg success witness";
+
+        final WeakOpt.LongCAS l = WeakOpt.getLongCAS(L, fence);
+        assert l.cas(f, 0L, Long.MAX_VALUE) && f.l == Long.MAX_VALUE : fence + " long cas success";
+        assert !l.cas(f, 0L, 2L) && f.l == Long.MAX_VALUE : fence + " long cas failure";
+        assert l.xchg(f, 0L, 3L) == Long.MAX_VALUE && f.l == Long.MAX_VALUE : fence + " long xchg failure witness";
+        assert l.xchg(f, Long.MAX_VALUE, 3L) == Long.MAX_VALUE && f.l == 3L : fence + " long xchg success witness";
+
+        final WeakOpt.RefCAS<String> s = WeakOpt.getRefCAS(S, String.class, fence);
+        assert s.cas(f, null, A) && f.s == A : fence + " ref cas success";
+        assert !s.cas(f, null, Z) && f.s == A : fence + " ref cas failure";
+        assert s.xchg(f, Z, X) == A && f.s == A : fence + " ref xchg failure witness";
+        assert s.xchg(f, A, X) == A && f.s == X : fence + " ref xchg success witness";
+
+        final WeakOpt.CMPXCHG c = WeakOpt.getCMPXCHG(I, fence);
+        assert c.cas(f, 3, 4) && f.i == 4 : fence + " untyped cas success";
+        assert !c.cas(f, 3, 5) && f.i == 4 : fence + " untyped cas failure";
+        assert (int) c.xchg(f, 3, 5) == 4 && f.i == 4 : fence + " untyped xchg failure witness";
+
+        assert rejected(() -> WeakOpt.getIntCAS(L, fence)) : fence + " int family over a long handle";
+        assert rejected(() -> WeakOpt.getRefCAS(S, Object.class, fence)) : fence + " ref family over another type";
+        assert rejected(() -> WeakOpt.getRefCAS(I, int.class, fence)) : fence + " ref family over a primitive";
+    }
+
+    static boolean rejected(Runnable r) {
+        try {
+            r.run();
+            return false;
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+
+    static void indexed(WeakOpt.FENCE fence) {
+        final int[] ints = new int[4];
+        final WeakOpt.IntIndexedCAS i = WeakOpt.getIntArrayCAS(fence);
+        assert i.cas(ints, 2, 0, 1) && ints[2] == 1 : fence + " int[] cas success";
+        assert !i.cas(ints, 2, 0, 2) && ints[2] == 1 : fence + " int[] cas failure";
+        assert i.xchg(ints, 2, 0, 3) == 1 && ints[2] == 1 : fence + " int[] xchg failure witness";
+        assert i.xchg(ints, 2, 1, 3) == 1 && ints[2] == 3 && ints[1] == 0 && ints[3] == 0 : fence + " int[] xchg success witness";
+
+        final long[] longs = new long[4];
+        final WeakOpt.LongIndexedCAS l = WeakOpt.getLongArrayCAS(fence);
+        assert l.cas(longs, 1, 0L, 1L) && longs[1] == 1L : fence + " long[] cas success";
+        assert !l.cas(longs, 1, 0L, 2L) && longs[1] == 1L : fence + " long[] cas failure";
+        assert l.xchg(longs, 1, 0L, 3L) == 1L && longs[1] == 1L : fence + " long[] xchg failure witness";
+        assert l.xchg(longs, 1, 1L, 3L) == 1L && longs[1] == 3L : fence + " long[] xchg success witness";
+
+        final String[] refs = new String[4];
+        final WeakOpt.RefIndexedCAS r = WeakOpt.getRefArrayCAS(String[].class, fence);
+        assert r.cas(refs, 3, null, A) && refs[3] == A : fence + " String[] cas success";
+        assert !r.cas(refs, 3, null, Z) && refs[3] == A : fence + " String[] cas failure";
+        assert r.xchg(refs, 3, Z, X) == A && refs[3] == A : fence + " String[] xchg failure witness";
+        assert r.xchg(refs, 3, A, X) == A && refs[3] == X : fence + " String[] xchg success witness";
+
+        final ByteBuffer buf = ByteBuffer.allocateDirect(64).order(ByteOrder.LITTLE_ENDIAN);
+        final WeakOpt.IntIndexedCAS bi = WeakOpt.getIntBufferCAS(ByteOrder.LITTLE_ENDIAN, fence);
+        assert bi.cas(buf, 8, 0, 1) && buf.getInt(8) == 1 : fence + " int view cas success";
+        assert !bi.cas(buf, 8, 0, 2) && buf.getInt(8) == 1 : fence + " int view cas failure";
+        assert bi.xchg(buf, 8, 1, 3) == 1 && buf.getInt(8) == 3 : fence + " int view xchg success witness";
+        assert misaligned(() -> bi.cas(buf, 9, 0, 1)) : fence + " int view misaligned cas";
+        assert misaligned(() -> bi.xchg(buf, 10, 0, 1)) : fence + " int view misaligned xchg";
+
+        final WeakOpt.LongIndexedCAS bl = WeakOpt.getLongBufferCAS(ByteOrder.LITTLE_ENDIAN, fence);
+        assert bl.cas(buf, 16, 0L, -1L) && buf.getLong(16) == -1L : fence + " long view cas success";
+        assert !bl.cas(buf, 16, 0L, 2L) && buf.getLong(16) == -1L : fence + " long view cas failure";
+        assert bl.xchg(buf, 16, 0L, 2L) == -1L && buf.getLong(16) == -1L : fence + " long view xchg failure witness";
+        assert misaligned(() -> bl.cas(buf, 20, 0L, 1L)) : fence + " long view misaligned cas";
+    }
+
+    static boolean misaligned(Runnable r) {
+        try {
+            r.run();
+            return false;
+        } catch (IllegalStateException e) {
+            return true;
+        }
+    }
+
+    static void atomics() {
+        for (WeakOpt.WeakAtomicInteger.FENCE fence : WeakOpt.WeakAtomicInteger.FENCE.values()) {
+            final AtomicInteger ai = new AtomicInteger();
+            final WeakOpt.WeakAtomicInteger w = WeakOpt.WeakAtomicInteger.getInstance(ai, fence);
+            assert w.incrementAndGet() == 1 && w.getAndIncrement() == 1 && ai.get() == 2 : fence + " WeakAtomicInteger increments";
+            assert w.updateAndGet(v -> v * 10) == 20 && w.decrementAndGet() == 19 : fence + " WeakAtomicInteger updates";
+            assert w.cas(19, 7) && !w.cas(19, 8) && ai.get() == 7 : fence + " WeakAtomicInteger cas";
+            assert w.xchg(0, 8) == 7 && w.xchg(7, 8) == 7 && ai.get() == 8 : fence + " WeakAtomicInteger xchg witness";
+        }
+        for (WeakOpt.WeakAtomicLong.FENCE fence : WeakOpt.WeakAtomicLong.FENCE.values()) {
+            final AtomicLong al = new AtomicLong(Integer.MAX_VALUE);
+            final WeakOpt.WeakAtomicLong w = WeakOpt.WeakAtomicLong.getInstance(al, fence);
+            assert w.incrementAndGet() == Integer.MAX_VALUE + 1L : fence + " WeakAtomicLong increments past int";
+            assert w.getAndUpdate(v -> 0L) == Integer.MAX_VALUE + 1L && al.get() == 0L : fence + " WeakAtomicLong updates";
+            assert w.cas(0L, 7L) && !w.cas(0L, 8L) && al.get() == 7L : fence + " WeakAtomicLong cas";
+            assert w.xchg(0L, 8L) == 7L && w.xchg(7L, 8L) == 7L && al.get() == 8L : fence + " WeakAtomicLong xchg witness";
+        }
+        for (WeakOpt.WeakAtomicBoolean.FENCE fence : WeakOpt.WeakAtomicBoolean.FENCE.values()) {
+            final AtomicBoolean ab = new AtomicBoolean();
+            final WeakOpt.WeakAtomicBoolean w = WeakOpt.WeakAtomicBoolean.getInstance(ab, fence);
+            assert !w.getAndToggle() && ab.get() && w.getAndSet(false) && !ab.get() : fence + " WeakAtomicBoolean toggles";
+            assert w.cas(false, true) && !w.cas(false, true) && ab.get() : fence + " WeakAtomicBoolean cas";
+            assert w.xchg(false, false) && ab.get() : fence + " WeakAtomicBoolean xchg witness";
+        }
+        for (WeakOpt.WeakAtomicReference.FENCE fence : WeakOpt.WeakAtomicReference.FENCE.values()) {
+            final AtomicReference<String> ar = new AtomicReference<>(A);
+            final WeakOpt.WeakAtomicReference<String> w = WeakOpt.WeakAtomicReference.getInstance(ar, fence);
+            assert w.updateAndGet(v -> v == A ? Z : A) == Z && w.getAndSet(X) == Z && ar.get() == X : fence + " WeakAtomicReference updates";
+            assert w.cas(X, A) && !w.cas(X, Z) && ar.get() == A : fence + " WeakAtomicReference cas";
+            assert w.xchg(Z, X) == A && ar.get() == A : fence + " WeakAtomicReference xchg witness";
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        final String weak = System.getProperty("weakopt.weak");
+        if (weak == null) {
+            for (String forced : new String[]{"true", "false"}) {
+                final int exit = new ProcessBuilder(
+                        Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                        "-ea", "-Dweakopt.weak=" + forced,
+                        "-cp", System.getProperty("java.class.path"),
+                        WeakOptCasTest.class.getName()
+                ).inheritIO().start().waitFor();
+                if (exit != 0) throw new AssertionError("-Dweakopt.weak=" + forced + " exited with " + exit);
+            }
+            return;
+        }
+        Print.yellow.ln("Begin... weakopt.weak = " + weak);
+        for (WeakOpt.FENCE fence : WeakOpt.FENCE.values()) {
+            typed(fence);
+            indexed(fence);
+            Print.green.ln(fence + "... OK");
+        }
+        atomics();
+        Print.cyan.ln("DONE... weakopt.weak = " + weak);
+    }
+}
@@ -0,0 +1,39 @@
+import com.skylarkarms.print.Print;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Objects;
+
+/**
+ * CPU feature probing of {@link WeakOpt} against the {@code /proc/cpuinfo} fixtures of each machine class.
+ * <p> Run with {@code -ea} from the project root, or pass the fixtures directory as the first argument.
+ * */
+public class WeakOptTest {
+
+    /** Fixture name, and the strong feature expected from it (null for none).*/
+    static final String[][] fixtures = {
+            {"aarch64-lse", "atomics"},
+            {"aarch64-armv8.0", null},
+            {"riscv64-zacas", "zacas"},
+            {"riscv64", null}
+    };
+
+    public static void main(String[] args) {
+        final Path dir = Paths.get(args.length > 0 ? args[0] : "src/test/resources/cpuinfo");
+        Print.yellow.ln("Begin... fixtures = " + dir.toAbsolutePath());
+        for (String[] fixture : fixtures) {
+            final Path file = dir.resolve(fixture[0]);
+            assert file.toFile().isFile() : "missing fixture " + file.toAbsolutePath();
+            WeakOpt.cpuInfo = file.toString();
+            final String found = WeakOpt.strongFeature();
+            assert Objects.equals(found, fixture[1]) :
+                    "\n fixture = " + fixture[0]
+                    + "\n expected = " + fixture[1]
+                    + "\n real = " + found;
+            Print.green.ln(fixture[0] + " = " + found);
+        }
+        WeakOpt.cpuInfo = dir.resolve("missing").toString();
+        assert WeakOpt.strongFeature() == null : "a missing file must probe nothing";
+        Print.cyan.ln("DONE...");
+    }
+}